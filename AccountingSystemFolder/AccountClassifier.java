@@ -0,0 +1,230 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AccountClassifier
+ *
+ * Rule-driven account type detection, shared by both apps, the importer and the engine.
+ * - A rule is "name contains keyword (any case) -> type"; the first rule in the list that
+ *   matches wins, so specific rules ("prepaid", "unearned") go ahead of broad ones
+ * - The keywords are compiled into one automaton (Aho-Corasick over the characters the
+ *   keywords use), so a name is classified in a single pass whatever the number of rules,
+ *   without lower-casing copies of it
+ * - keywords() results are memoized per canonical account name (any [TYPE] token and outer
+ *   spaces dropped, see AccountingSystem3_fixed.canonicalize), so "Cash", " Cash " and
+ *   "Cash [ASSET]" share one entry and bulk imports that repeat a handful of accounts
+ *   classify each once; cleared when MAX_CACHED is reached; safe from any thread.
+ *   brackets() reads the token itself, so it is not memoized: a scan costs what a lookup does
+ * - keywords() is the built-in list, with any user rules (useRules, parseRules) in front;
+ *   brackets() finds "[ASSET]"-style tokens the same way
+ */
+final class AccountClassifier {
+
+    static final int MAX_CACHED = 1 << 16;
+    private static final int NONE = Integer.MAX_VALUE;
+
+    /** One rule: a name containing {@code keyword}, in any case, is of {@code type}. */
+    static final class Rule {
+        final String keyword; // folded to lower case
+        final AccountingSystem3_fixed.AccountType type;
+        Rule(String keyword, AccountingSystem3_fixed.AccountType type){
+            if(keyword == null || keyword.trim().isEmpty()) throw new IllegalArgumentException("empty keyword");
+            this.keyword = fold(keyword.trim());
+            this.type = Objects.requireNonNull(type, "type");
+        }
+        @Override public String toString(){ return keyword + " = " + type; }
+    }
+
+    private final List<Rule> rules;
+    // the automaton: next[state * classes + charClass]; class 0 is every char no keyword uses
+    private final int classes;
+    private final int[] asciiClass = new int[128];
+    private final Map<Character, Integer> otherClass = new HashMap<>();
+    private final int[] next;
+    private final int[] best; // lowest index of a rule matched on reaching the state, or NONE
+    private final ConcurrentHashMap<String, AccountingSystem3_fixed.AccountType> memo; // by canonical name; null: none
+
+    AccountClassifier(List<Rule> rules){
+        this(rules, true);
+    }
+
+    private AccountClassifier(List<Rule> rules, boolean memoize){
+        this.memo = memoize ? new ConcurrentHashMap<>() : null;
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        int cls = 1;
+        for(Rule r : this.rules){
+            for(char ch : r.keyword.toCharArray()){
+                if(classOf(ch) == 0){
+                    if(ch < 128) asciiClass[ch] = cls++;
+                    else otherClass.put(ch, cls++);
+                }
+            }
+        }
+        classes = cls;
+
+        // trie of the keywords
+        List<int[]> go = new ArrayList<>();
+        List<Integer> out = new ArrayList<>();
+        go.add(emptyRow());
+        out.add(NONE);
+        for(int i = 0; i < this.rules.size(); i++){
+            int s = 0;
+            for(char ch : this.rules.get(i).keyword.toCharArray()){
+                int c = classOf(ch);
+                if(go.get(s)[c] < 0){
+                    go.get(s)[c] = go.size();
+                    go.add(emptyRow());
+                    out.add(NONE);
+                }
+                s = go.get(s)[c];
+            }
+            out.set(s, Math.min(out.get(s), i));
+        }
+
+        // failure links, breadth first, folded into a full transition table
+        int states = go.size();
+        next = new int[states * classes];
+        best = new int[states];
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        best[0] = out.get(0);
+        for(int c = 0; c < classes; c++){
+            int t = go.get(0)[c];
+            if(t < 0){ next[c] = 0; continue; }
+            next[c] = t;
+            fail[t] = 0;
+            best[t] = out.get(t);
+            queue.add(t);
+        }
+        while(!queue.isEmpty()){
+            int s = queue.poll();
+            for(int c = 0; c < classes; c++){
+                int t = go.get(s)[c];
+                if(t < 0){ next[s * classes + c] = next[fail[s] * classes + c]; continue; }
+                next[s * classes + c] = t;
+                fail[t] = next[fail[s] * classes + c];
+                best[t] = Math.min(out.get(t), best[fail[t]]);
+                queue.add(t);
+            }
+        }
+    }
+
+    private int[] emptyRow(){
+        int[] row = new int[classes];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private int classOf(char ch){
+        if(ch < 128) return asciiClass[ch];
+        Integer c = otherClass.get(ch);
+        return c == null ? 0 : c;
+    }
+
+    private static String fold(String s){
+        char[] out = new char[s.length()];
+        for(int i = 0; i < out.length; i++) out[i] = Character.toLowerCase(s.charAt(i));
+        return new String(out);
+    }
+
+    List<Rule> rules(){ return rules; }
+
+    // ---------------------- Classify ----------------
+    /**
+     * Type of the first rule whose keyword occurs in {@code name}, else UNKNOWN. A memoizing
+     * classifier looks at the canonical account name only (no [TYPE] token).
+     */
+    AccountingSystem3_fixed.AccountType classify(String name){
+        if(name == null) return AccountingSystem3_fixed.AccountType.UNKNOWN;
+        if(memo == null) return scan(name);
+        String key = AccountingSystem3_fixed.canonicalize(name); // no copy for a name that is already canonical
+        AccountingSystem3_fixed.AccountType t = memo.get(key);
+        if(t != null) return t;
+        t = scan(key);
+        if(memo.size() >= MAX_CACHED) memo.clear();
+        memo.put(key, t);
+        return t;
+    }
+
+    private AccountingSystem3_fixed.AccountType scan(String s){
+        int state = 0, found = NONE;
+        for(int i = 0; i < s.length(); i++){
+            state = next[state * classes + classOf(Character.toLowerCase(s.charAt(i)))];
+            if(best[state] < found){
+                found = best[state];
+                if(found == 0) break; // nothing beats the first rule
+            }
+        }
+        return found == NONE ? AccountingSystem3_fixed.AccountType.UNKNOWN : rules.get(found).type;
+    }
+
+    // ---------------------- Rule sets ----------------
+    private static final AccountClassifier BRACKETS = new AccountClassifier(bracketRules(), false);
+    private static volatile AccountClassifier keywords = new AccountClassifier(defaultRules());
+
+    /** The keyword classifier in use: user rules (if any), then the built-in list. */
+    static AccountClassifier keywords(){ return keywords; }
+
+    /** Finds an explicit "[ASSET]".."[EXPENSE]" token, any case. */
+    static AccountClassifier brackets(){ return BRACKETS; }
+
+    /** Puts {@code userRules} ahead of the built-in keywords from now on. */
+    static void useRules(List<Rule> userRules){
+        List<Rule> all = new ArrayList<>(userRules);
+        all.addAll(defaultRules());
+        keywords = new AccountClassifier(all);
+    }
+
+    /**
+     * Reads rules, one "keyword = TYPE" per line, in priority order; blank lines and lines
+     * starting with '#' are skipped. Throws IllegalArgumentException naming the bad line.
+     */
+    static List<Rule> parseRules(List<String> lines){
+        List<Rule> out = new ArrayList<>();
+        for(int i = 0; i < lines.size(); i++){
+            String line = lines.get(i).trim();
+            if(line.isEmpty() || line.startsWith("#")) continue;
+            int eq = line.lastIndexOf('=');
+            if(eq <= 0) throw new IllegalArgumentException("line " + (i + 1) + ": expected 'keyword = TYPE'");
+            String type = line.substring(eq + 1).trim().toUpperCase(Locale.ROOT);
+            AccountingSystem3_fixed.AccountType t;
+            try { t = AccountingSystem3_fixed.AccountType.valueOf(type); }
+            catch(IllegalArgumentException ex){ throw new IllegalArgumentException("line " + (i + 1) + ": unknown type '" + type + "'"); }
+            String keyword = line.substring(0, eq).trim();
+            if(keyword.isEmpty()) throw new IllegalArgumentException("line " + (i + 1) + ": empty keyword");
+            out.add(new Rule(keyword, t));
+        }
+        return out;
+    }
+
+    /**
+     * The built-in keywords. Word pairs that pull two ways are settled by order: "Prepaid
+     * Rent" and "Notes Receivable" are assets, "Supplies Expense" an expense, "Unearned
+     * Revenue" a liability, and any other "note" a liability.
+     */
+    static List<Rule> defaultRules(){
+        List<Rule> r = new ArrayList<>();
+        add(r, AccountingSystem3_fixed.AccountType.LIABILITY, "unearned");
+        add(r, AccountingSystem3_fixed.AccountType.ASSET, "accumulated depreciation", "prepaid", "receivable");
+        add(r, AccountingSystem3_fixed.AccountType.EXPENSE, "expense");
+        add(r, AccountingSystem3_fixed.AccountType.LIABILITY, "payable", "liab");
+        add(r, AccountingSystem3_fixed.AccountType.ASSET, "cash", "inventory", "equipment", "supplies");
+        add(r, AccountingSystem3_fixed.AccountType.LIABILITY, "note");
+        add(r, AccountingSystem3_fixed.AccountType.EQUITY, "capital", "owner", "retained", "draw", "equity");
+        add(r, AccountingSystem3_fixed.AccountType.REVENUE, "revenue", "sales", "service");
+        add(r, AccountingSystem3_fixed.AccountType.EXPENSE, "rent", "salar", "utilities", "cost", "depreciation", "insurance");
+        return r;
+    }
+
+    private static List<Rule> bracketRules(){
+        List<Rule> r = new ArrayList<>();
+        for(AccountingSystem3_fixed.AccountType t : AccountingSystem3_fixed.AccountType.values()){
+            if(t != AccountingSystem3_fixed.AccountType.UNKNOWN) add(r, t, "[" + t.name() + "]");
+        }
+        return r;
+    }
+
+    private static void add(List<Rule> rules, AccountingSystem3_fixed.AccountType type, String... keywords){
+        for(String k : keywords) rules.add(new Rule(k, type));
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AccountIds
+ *
+ * Interning dictionary from canonical account names to compact int IDs (0, 1, 2, ...).
+ * - Transactions carry IDs instead of names, and PostingEngine keeps balances in
+ *   primitive arrays indexed by ID
+ * - An ID is never reused or forgotten: removing an account does not free its ID, so
+ *   history keeps resolving to the same name
+ * - Safe to intern from several threads (CsvImporter parses chunks in parallel);
+ *   lookups by ID never lock
+ */
+final class AccountIds {
+
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int size; // guarded by AccountIds.class
+
+    private AccountIds(){}
+
+    /** ID of {@code name}, assigning the next free one the first time a name is seen. */
+    static int intern(String name){
+        Integer id = ids.get(name);
+        if(id != null) return id;
+        synchronized(AccountIds.class){
+            id = ids.get(name);
+            if(id != null) return id;
+            int next = size;
+            String[] n = names;
+            if(next == n.length) n = Arrays.copyOf(n, next * 2);
+            n[next] = name;
+            names = n;          // publish the slot before the ID can be seen
+            size = next + 1;
+            ids.put(name, next);
+            return next;
+        }
+    }
+
+    /** ID of {@code name}, or -1 if it was never interned. */
+    static int idOf(String name){
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    static String name(int id){
+        return names[id];
+    }
+
+    /** Number of IDs handed out so far; every ID is below this. */
+    static int size(){
+        synchronized(AccountIds.class){ return size; }
+    }
+}
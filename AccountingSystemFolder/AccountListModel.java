@@ -0,0 +1,174 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.plaf.basic.ComboPopup;
+import javax.swing.text.JTextComponent;
+import java.util.*;
+import java.util.List;
+
+/**
+ * AccountListModel
+ *
+ * The account names shown by the debit/credit editors: one shared list, kept sorted and
+ * updated one entry at a time, instead of new combo models built after every change.
+ * - Registered as a PostingEngine.AccountListener, so opening or removing an account
+ *   inserts or deletes that one row (a single interval event), whoever made the change
+ * - Each combo box gets its own ComboView over it (its own selection and filter); with no
+ *   filter a view is the shared list itself, nothing is copied
+ * - installTypeAhead() filters a view as the user types, through an AccountNameIndex, and
+ *   caps the popup at MAX_MATCHES rows
+ * - EDT only; listener calls from other threads are handed to the EDT
+ */
+final class AccountListModel extends AbstractListModel<String> implements PostingEngine.AccountListener {
+
+    static final int MAX_MATCHES = 200;
+    // sizes the combos and popup rows without measuring every name
+    private static final String PROTOTYPE = "Accounts Receivable - Trade Debtors";
+    private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final List<String> names = new ArrayList<>(); // sorted by ORDER
+    private final AccountNameIndex index = new AccountNameIndex();
+
+    AccountListModel(Collection<String> initial){
+        names.addAll(initial);
+        names.sort(ORDER);
+        for(String n : names) index.add(n);
+    }
+
+    // ---------------------- Changes ----------------
+    void add(String name){
+        int i = Collections.binarySearch(names, name, ORDER);
+        if(i >= 0) return;
+        i = -i - 1;
+        names.add(i, name);
+        index.add(name);
+        fireIntervalAdded(this, i, i);
+    }
+
+    void remove(String name){
+        int i = Collections.binarySearch(names, name, ORDER);
+        if(i < 0) return;
+        names.remove(i);
+        index.remove(name);
+        fireIntervalRemoved(this, i, i);
+    }
+
+    @Override public void accountOpened(AccountingSystem3_fixed.Account a){ onEdt(() -> add(a.name)); }
+
+    @Override public void accountRemoved(AccountingSystem3_fixed.Account a){ onEdt(() -> remove(a.name)); }
+
+    private static void onEdt(Runnable r){
+        if(SwingUtilities.isEventDispatchThread()) r.run();
+        else SwingUtilities.invokeLater(r);
+    }
+
+    @Override public int getSize(){ return names.size(); }
+
+    @Override public String getElementAt(int i){ return names.get(i); }
+
+    List<String> matching(String prefix){ return index.search(prefix, MAX_MATCHES); }
+
+    ComboView newComboModel(){ return new ComboView(this); }
+
+    // ---------------------- Per-combo view ----------------
+    /** A combo box's model: the shared list, or the names matching its filter. */
+    static final class ComboView extends AbstractListModel<String> implements ComboBoxModel<String>, ListDataListener {
+        private final AccountListModel all;
+        private String filter = "";
+        private List<String> matches; // null = unfiltered
+        private Object selected;
+
+        private ComboView(AccountListModel all){
+            this.all = all;
+            all.addListDataListener(this);
+        }
+
+        /** Narrows the view to names matching {@code text} (blank shows every name). */
+        void filter(String text){
+            String f = text == null ? "" : text.trim();
+            if(f.equals(filter)) return;
+            int old = getSize();
+            filter = f;
+            matches = f.isEmpty() ? null : all.matching(f);
+            refire(old);
+        }
+
+        String filterText(){ return filter; }
+
+        private void refire(int oldSize){
+            int size = getSize();
+            if(oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+            if(size > 0) fireIntervalAdded(this, 0, size - 1);
+        }
+
+        @Override public int getSize(){ return matches == null ? all.getSize() : matches.size(); }
+
+        @Override public String getElementAt(int i){ return matches == null ? all.getElementAt(i) : matches.get(i); }
+
+        @Override public void setSelectedItem(Object item){
+            if(Objects.equals(selected, item)) return;
+            selected = item;
+            fireContentsChanged(this, -1, -1);
+        }
+
+        @Override public Object getSelectedItem(){ return selected; }
+
+        // shared list changed: pass the one-row event on, or redo the (capped) filter
+        @Override public void intervalAdded(ListDataEvent e){
+            if(matches == null) fireIntervalAdded(this, e.getIndex0(), e.getIndex1());
+            else refilter();
+        }
+
+        @Override public void intervalRemoved(ListDataEvent e){
+            if(matches == null) fireIntervalRemoved(this, e.getIndex0(), e.getIndex1());
+            else refilter();
+        }
+
+        @Override public void contentsChanged(ListDataEvent e){
+            if(matches == null) fireContentsChanged(this, e.getIndex0(), e.getIndex1());
+            else refilter();
+        }
+
+        private void refilter(){
+            int old = getSize();
+            matches = all.matching(filter);
+            refire(old);
+        }
+    }
+
+    // ---------------------- Type-ahead ----------------
+    /**
+     * Makes {@code combo} an editable account editor over {@code view}: typing filters the
+     * popup to matching names, picking one fills it in. The typed text stays the selected
+     * item (model events make the combo re-copy the selection into the editor).
+     */
+    static void installTypeAhead(JComboBox<String> combo, ComboView view){
+        combo.setModel(view);
+        combo.setEditable(true);
+        combo.setPrototypeDisplayValue(PROTOTYPE);
+        Object popup = combo.getUI().getAccessibleChild(combo, 0);
+        if(popup instanceof ComboPopup) ((ComboPopup) popup).getList().setPrototypeCellValue(PROTOTYPE);
+
+        JTextComponent editor = (JTextComponent) combo.getEditor().getEditorComponent();
+        editor.getDocument().addDocumentListener(new DocumentListener(){
+            // the document can't be touched from inside its own event: filter afterwards
+            @Override public void insertUpdate(DocumentEvent e){ SwingUtilities.invokeLater(this::typed); }
+            @Override public void removeUpdate(DocumentEvent e){ SwingUtilities.invokeLater(this::typed); }
+            @Override public void changedUpdate(DocumentEvent e){}
+
+            private void typed(){
+                String text = editor.getText();
+                if(text.equals(Objects.toString(view.getSelectedItem(), ""))) return; // set by the combo, not typed
+                int caret = editor.getCaretPosition();
+                view.setSelectedItem(text);
+                view.filter(text);
+                editor.setCaretPosition(Math.min(caret, editor.getDocument().getLength()));
+                if(!editor.isFocusOwner()) return;
+                combo.hidePopup(); // re-shown so it resizes to the new row count
+                if(!view.filterText().isEmpty() && view.getSize() > 0) combo.showPopup();
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.*;
+
+/**
+ * AccountNameIndex
+ *
+ * Case-insensitive prefix index over account names, for type-ahead in the account editors.
+ * - A name is filed under its whole lower-cased text, and under the text from the start of
+ *   each later word, so "rev" finds "Revenue Adjustments" and also "Service Revenue"
+ * - Keys live in sorted maps; the names with a given prefix are the key range
+ *   [prefix, prefix + '\uffff'), so a lookup is one O(log n) seek plus the matches it
+ *   returns, however large the chart of accounts
+ * - add() and remove() touch only the keys of that one name
+ */
+final class AccountNameIndex {
+
+    // key = lower-cased text + '\0' + name, so equal texts of different names stay distinct
+    private final TreeMap<String, String> whole = new TreeMap<>(); // whole names
+    private final TreeMap<String, String> words = new TreeMap<>(); // later words of names
+
+    void add(String name){
+        String lower = name.toLowerCase(Locale.ROOT);
+        whole.put(lower + '\0' + name, name);
+        for(int i = 1; i < lower.length(); i++){
+            if(wordStart(lower, i)) words.put(lower.substring(i) + '\0' + name, name);
+        }
+    }
+
+    void remove(String name){
+        String lower = name.toLowerCase(Locale.ROOT);
+        whole.remove(lower + '\0' + name);
+        for(int i = 1; i < lower.length(); i++){
+            if(wordStart(lower, i)) words.remove(lower.substring(i) + '\0' + name);
+        }
+    }
+
+    int size(){ return whole.size(); }
+
+    /**
+     * Up to {@code limit} names matching the typed prefix: names that start with it first
+     * (in name order), then names with a later word that does. Blank prefix: no matches.
+     */
+    List<String> search(String prefix, int limit){
+        String p = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if(p.isEmpty() || limit <= 0) return Collections.emptyList();
+        LinkedHashSet<String> found = new LinkedHashSet<>();
+        collect(whole, p, limit, found);
+        if(found.size() < limit) collect(words, p, limit, found);
+        return new ArrayList<>(found);
+    }
+
+    private static void collect(TreeMap<String, String> keys, String p, int limit, Set<String> found){
+        for(String name : keys.subMap(p, true, p + '\uffff', false).values()){
+            if(found.size() >= limit) return;
+            found.add(name);
+        }
+    }
+
+    private static boolean wordStart(String s, int i){
+        return Character.isLetterOrDigit(s.charAt(i)) && !Character.isLetterOrDigit(s.charAt(i - 1));
+    }
+}
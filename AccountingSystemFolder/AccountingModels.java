@@ -0,0 +1,422 @@
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AccountingModels
+ *
+ * The table/list models behind AccountingSystem and the bookkeeping that keeps them in
+ * step (posting, balances, ledger list, balance sheet). It holds no Swing components, so it
+ * can be built and exercised headless (the benchmark harness does); the frame only adds
+ * the widgets, dialogs and listeners on top.
+ */
+class AccountingModels {
+
+    final DefaultTableModel transactionsModel; //stores all transactions
+    final DefaultTableModel accountsModel; // account info and balances
+    final DefaultTableModel journalModel;
+    final DefaultTableModel ledgerModel;
+    final DefaultTableModel balanceLeftModel;
+    final DefaultTableModel balanceRightModel;
+    final DefaultListModel<String> ledgerAccountListModel; // FIX: Added list model for Ledger left side
+    private final Map<String, List<LedgerPosting>> ledgerIndex = new HashMap<>(); // journal rows per account, filled as entries are posted
+
+    // Running balance sheet totals per account type, kept by accountsChanged() on every edit
+    private static final int ASSET = 0, LIABILITY = 1, EQUITY = 2, REVENUE = 3, EXPENSE = 4;
+    private final long[] typeTotals = new long[5];
+    private final List<AccountEntry> accountEntries = new ArrayList<>(); // parallel to accountsModel rows
+
+    // name -> position indexes, so a post never scans the accounts table or the ledger list
+    private final Map<String, Integer> accountRows = new HashMap<>();     // first accountsModel row with that name
+    private final Map<String, Integer> ledgerListRows = new HashMap<>();  // item in ledgerAccountListModel
+
+    // Money is held as long centavos (see Money); every money cell (amounts, balances, running
+    // balances, balance sheet) stores a Long and is only turned into "₱#,##0.00" text when it
+    // is rendered or shown in a list/report. Blank sides of a line hold "".
+
+    AccountingModels() {
+        transactionsModel = new DefaultTableModel(new String[]{"Date", "Description", "Debit", "Credit", "Amount"}, 0);
+        accountsModel = new DefaultTableModel(new String[]{"Account", "Type", "Balance"}, 0);
+        journalModel = new DefaultTableModel(new String[]{"Date", "Description", "Account", "Debit", "Credit"}, 0);
+        ledgerModel = new DefaultTableModel(new String[]{"Date", "Description", "Debit", "Credit", "Running"}, 0);
+        balanceLeftModel = new DefaultTableModel(new String[]{"Asset", "Amount"}, 0);
+        balanceRightModel = new DefaultTableModel(new String[]{"Liability/Equity", "Amount"}, 0);
+        ledgerAccountListModel = new DefaultListModel<>(); // FIX: Initialized list model
+        accountsModel.addTableModelListener(this::accountsChanged);
+
+        for (String s : sampleAccounts()) {
+            String type = deduceAccountType(s);
+            accountsModel.addRow(new Object[]{s, type, 0L});
+
+            // FIX: Populate the Ledger account list on startup
+            addAccountToLedgerList(s);
+        }
+        updateBalanceSheetTotals();
+    }
+
+    /**
+     * Records one validated transaction in every model: transactions, journal (with the
+     * ledger index), account balances, ledger list and running ledger. The balance sheet
+     * follows the accounts model on its own.
+     */
+    void postTransaction(String date, String description, String debitAcc, String creditAcc, long amt) {
+        transactionsModel.addRow(new Object[]{date, description, debitAcc, creditAcc, amt});
+
+        // General Journal entries
+        int debitRow = journalModel.getRowCount();
+        journalModel.addRow(new Object[]{date, description, debitAcc, amt, ""});
+        journalModel.addRow(new Object[]{date, description, creditAcc, "", amt});
+        indexLedgerPosting(debitAcc, new LedgerPosting(debitRow, amt, 0L));
+        indexLedgerPosting(creditAcc, new LedgerPosting(debitRow + 1, 0L, amt));
+
+        // Keep account balances updated
+        adjustAccountBalance(debitAcc, amt, true);
+        adjustAccountBalance(creditAcc, amt, false);
+
+        // FIX: Add account to the ledger list if it's new (now using the corrected method)
+        addAccountToLedgerList(debitAcc);
+        addAccountToLedgerList(creditAcc);
+
+        // FIX: Update the balance in the ledger list item
+        updateLedgerAccountListItem(debitAcc, debitAcc);
+        updateLedgerAccountListItem(creditAcc, creditAcc);
+
+        // Ledger entries (All transactions in one model for dynamic filtering later)
+        long runningAfterDebit = getAccountNumericBalance(debitAcc);
+        ledgerModel.addRow(new Object[]{date, description + " (Dr: " + debitAcc + ")", amt, "", runningAfterDebit});
+
+        long runningAfterCredit = getAccountNumericBalance(creditAcc);
+        ledgerModel.addRow(new Object[]{date, description + " (Cr: " + creditAcc + ")", "", amt, runningAfterCredit});
+
+        // balance sheet rows and totals were already updated by accountsChanged()
+    }
+
+    // Ledger rows for one account (FIX: filters by account instead of showing every posting).
+    // Nothing is copied: the model reads the account's journal rows (through the ledger index)
+    // a window at a time as the table scrolls, and covers the entries posted so far.
+    LedgerTableModel filterLedger(String accountName) {
+        // Determine account type for normal balance calculation
+        int row = accountRow(accountName);
+        String type = row >= 0 ? (String) accountsModel.getValueAt(row, 1) : "";
+        boolean debitIncrease = type.equals("ASSET") || type.equals("EXPENSE");
+        List<LedgerPosting> postings = ledgerIndex.getOrDefault(accountName, Collections.emptyList()); // append-only
+        int count = postings.size();
+
+        LedgerTableModel model = new LedgerTableModel() {
+            @Override int postings() { return count; }
+            @Override String date(int k) { return (String) journalModel.getValueAt(postings.get(k).journalRow, 0); }
+            @Override String description(int k) { return (String) journalModel.getValueAt(postings.get(k).journalRow, 1); }
+            @Override boolean isDebit(int k) { return postings.get(k).debit > 0; }
+            @Override long amount(int k) { LedgerPosting p = postings.get(k); return p.debit > 0 ? p.debit : p.credit; }
+            @Override long delta(int k) {
+                LedgerPosting p = postings.get(k);
+                if (p.debit > 0) return debitIncrease ? p.debit : -p.debit;
+                return debitIncrease ? -p.credit : p.credit;
+            }
+        };
+        model.reset(null, 0L);
+        return model;
+    }
+
+    void indexLedgerPosting(String accountName, LedgerPosting posting) {
+        ledgerIndex.computeIfAbsent(accountName, k -> new ArrayList<>()).add(posting);
+    }
+
+    // One journal line of an account: where it sits in journalModel plus its numeric amounts
+    private static class LedgerPosting {
+        final int journalRow;
+        final long debit;  // centavos
+        final long credit; // centavos
+
+        LedgerPosting(int journalRow, long debit, long credit) {
+            this.journalRow = journalRow;
+            this.debit = debit;
+            this.credit = credit;
+        }
+    }
+
+    // FIX: Renamed and corrected the logic to use DefaultListModel
+    void addAccountToLedgerList(String accountName) {
+        if (ledgerListRows.containsKey(accountName)) return;
+
+        // Get account type and balance
+        int row = accountRow(accountName);
+        if (row < 0) return;
+        ledgerListRows.put(accountName, ledgerAccountListModel.getSize());
+        ledgerAccountListModel.addElement(ledgerListItem(accountName, row));
+    }
+
+    // FIX: New method to update the balance shown in the JList item
+    void updateLedgerAccountListItem(String oldName, String newName) {
+        Integer item = ledgerListRows.get(oldName);
+        int row = accountRow(newName);
+        if (item == null || row < 0) return;
+        if (!oldName.equals(newName)) {
+            ledgerListRows.remove(oldName);
+            ledgerListRows.put(newName, item);
+        }
+        ledgerAccountListModel.set(item, ledgerListItem(newName, row));
+    }
+
+    void removeAccountFromLedgerList(String accountName) {
+        Integer item = ledgerListRows.remove(accountName);
+        if (item == null) return;
+        ledgerAccountListModel.remove(item);
+        for (int j = item; j < ledgerAccountListModel.getSize(); j++) {
+            ledgerListRows.put(itemName(ledgerAccountListModel.getElementAt(j)), j);
+        }
+    }
+
+    // "Cash (ASSET) - ₱1,000.00"
+    private String ledgerListItem(String accountName, int row) {
+        String type = (String) accountsModel.getValueAt(row, 1);
+        String bal = formatAccountingMoney(cellCents(accountsModel.getValueAt(row, 2)));
+        return accountName + " (" + type + ") - " + bal;
+    }
+
+    private static String itemName(String item) {
+        int paren = item.lastIndexOf(" (", item.lastIndexOf(") - "));
+        return paren >= 0 ? item.substring(0, paren) : item;
+    }
+
+    /** Row of the account in accountsModel, or -1; O(1) through the name index. */
+    int accountRow(String accountName) {
+        Integer row = accountRows.get(accountName);
+        return row != null ? row : -1;
+    }
+
+    String deduceAccountType(String accountName) {
+        // same rules as AccountingSystem3_fixed; this app files anything unmatched as an asset
+        AccountingSystem3_fixed.AccountType type = AccountClassifier.keywords().classify(accountName);
+        return type == AccountingSystem3_fixed.AccountType.UNKNOWN ? "ASSET" : type.name();
+    }
+
+    /**
+     * Helper method to format centavos as a currency string with parentheses for negative values.
+     * e.g., 100000 -> ₱1,000.00
+     * e.g., -100000 -> (₱1,000.00)
+     */
+    String formatAccountingMoney(long cents) {
+        return Money.formatAccounting(cents);
+    }
+
+    void adjustAccountBalance(String accountName, long amount, boolean isDebit) {
+        int i = accountRow(accountName);
+        if (i >= 0) {
+            String type = (String) accountsModel.getValueAt(i, 1);
+            long current = cellCents(accountsModel.getValueAt(i, 2));
+            long updated;
+            
+            // Debit increases ASSET, EXPENSE, DRAWINGS
+            // Credit increases LIABILITY, EQUITY, REVENUE
+            boolean debitIncreases = "ASSET".equals(type) || "EXPENSE".equals(type) || accountName.contains("Drawings"); 
+            
+            if (isDebit) {
+                updated = debitIncreases ? (current + amount) : (current - amount);
+            } else { // is Credit
+                updated = debitIncreases ? (current - amount) : (current + amount);
+            }
+            
+            // Store the numeric balance; it is formatted when rendered
+            accountsModel.setValueAt(updated, i, 2);
+            return;
+        }
+        // If account not found, add it (using ASSET as default, which is likely not what's wanted, but keeps logic simple)
+        // This scenario should be rare if all accounts are pre-loaded or manually added.
+        long val = isDebit ? amount : -amount;
+        accountsModel.addRow(new Object[]{accountName, "ASSET", val});
+    }
+
+    // Only needed for text that came from outside (e.g. a balance cell typed in by the user)
+    long parseMoney(String moneyString) {
+        if (moneyString == null || moneyString.trim().isEmpty()) return 0L;
+        try {
+            return Money.parse(moneyString);
+        } catch (Exception ex) {
+            return 0L;
+        }
+    }
+
+    // Balance cells hold Long centavos; an edited cell may come back as text
+    long cellCents(Object cell) {
+        if (cell instanceof Long) return (Long) cell;
+        return cell == null ? 0L : parseMoney(cell.toString());
+    }
+
+    long getAccountNumericBalance(String accountName) {
+        int i = accountRow(accountName);
+        return i >= 0 ? cellCents(accountsModel.getValueAt(i, 2)) : 0L;
+    }
+
+    // Full rebuild of both balance sheet tables from the per-account entries, O(accounts).
+    // Per-post updates don't come through here: see accountsChanged().
+    void updateBalanceSheetTotals() {
+        balanceLeftModel.setRowCount(0);
+        balanceRightModel.setRowCount(0);
+
+        for (AccountEntry entry : accountEntries) {
+            Object[] row = {entry.name, entry.amount}; // parentheses are applied by the renderer
+            switch (entry.type) {
+                case ASSET:
+                    entry.sheetRow = balanceLeftModel.getRowCount();
+                    balanceLeftModel.addRow(row);
+                    break;
+                case LIABILITY:
+                case EQUITY:
+                    entry.sheetRow = balanceRightModel.getRowCount();
+                    balanceRightModel.addRow(row);
+                    break;
+                default:
+                    entry.sheetRow = -1;
+            }
+        }
+
+        // totals
+        balanceLeftModel.addRow(new Object[]{"Total Assets", totalAssets()});
+        balanceRightModel.addRow(new Object[]{"Total Liabilities & Equity", totalLiabilitiesAndEquity()});
+    }
+
+    long totalAssets() {
+        return typeTotals[ASSET];
+    }
+
+    long totalLiabilitiesAndEquity() {
+        return typeTotals[LIABILITY] + typeTotals[EQUITY];
+    }
+
+    // Keeps accountEntries, the name index and typeTotals in step with accountsModel. A
+    // balance change only touches that account's balance sheet row and the two total rows;
+    // adding, removing, renaming or retyping an account reindexes and rebuilds the (small)
+    // balance sheet, and renames/retypes carry over to the Ledger list item.
+    private void accountsChanged(TableModelEvent e) {
+        boolean rebuild = false;
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+
+        if (e.getType() == TableModelEvent.INSERT) {
+            boolean appended = first == accountEntries.size();
+            for (int r = first; r <= last; r++) {
+                AccountEntry entry = entryFor(r);
+                accountEntries.add(r, entry);
+                addToTotals(entry, 1);
+                if (appended) accountRows.putIfAbsent(entry.name, r);
+            }
+            if (!appended) reindexAccounts();
+            rebuild = true;
+        } else if (e.getType() == TableModelEvent.DELETE) {
+            List<AccountEntry> removed = new ArrayList<>();
+            for (int r = last; r >= first; r--) {
+                AccountEntry entry = accountEntries.remove(r);
+                addToTotals(entry, -1);
+                removed.add(entry);
+            }
+            reindexAccounts();
+            for (AccountEntry entry : removed) {
+                if (!accountRows.containsKey(entry.name)) removeAccountFromLedgerList(entry.name);
+            }
+            rebuild = true;
+        } else if (first == TableModelEvent.HEADER_ROW || last >= accountEntries.size()) {
+            // whole table changed (setDataVector, fireTableDataChanged): start over
+            accountEntries.clear();
+            Arrays.fill(typeTotals, 0L);
+            for (int r = 0; r < accountsModel.getRowCount(); r++) {
+                AccountEntry entry = entryFor(r);
+                accountEntries.add(entry);
+                addToTotals(entry, 1);
+            }
+            reindexAccounts();
+            rebuild = true;
+        } else {
+            for (int r = first; r <= last; r++) {
+                AccountEntry old = accountEntries.get(r);
+                AccountEntry entry = entryFor(r);
+                addToTotals(old, -1);
+                addToTotals(entry, 1);
+                accountEntries.set(r, entry);
+                if (!entry.name.equals(old.name)) {
+                    reindexAccounts();
+                    // the list item follows the rename unless another row still carries the old name
+                    if (!accountRows.containsKey(old.name)) updateLedgerAccountListItem(old.name, entry.name);
+                } else if (entry.type != old.type) {
+                    updateLedgerAccountListItem(entry.name, entry.name);
+                }
+                if (old.sheetRow >= 0 && entry.type == old.type && entry.name.equals(old.name)) {
+                    entry.sheetRow = old.sheetRow;
+                    DefaultTableModel side = entry.type == ASSET ? balanceLeftModel : balanceRightModel;
+                    side.setValueAt(entry.amount, entry.sheetRow, 1);
+                } else if (old.sheetRow >= 0 || entry.type == ASSET || entry.type == LIABILITY || entry.type == EQUITY) {
+                    rebuild = true; // renamed, retyped, or newly shown
+                }
+            }
+        }
+
+        if (rebuild) {
+            updateBalanceSheetTotals();
+        } else {
+            if (balanceLeftModel.getRowCount() > 0) balanceLeftModel.setValueAt(totalAssets(), balanceLeftModel.getRowCount() - 1, 1);
+            if (balanceRightModel.getRowCount() > 0) balanceRightModel.setValueAt(totalLiabilitiesAndEquity(), balanceRightModel.getRowCount() - 1, 1);
+        }
+    }
+
+    private void reindexAccounts() {
+        accountRows.clear();
+        for (int r = 0; r < accountEntries.size(); r++) accountRows.putIfAbsent(accountEntries.get(r).name, r);
+    }
+
+    private AccountEntry entryFor(int row) {
+        String account = (String) accountsModel.getValueAt(row, 0);
+        long amount = cellCents(accountsModel.getValueAt(row, 2)); // centavos
+        boolean isDeduction = amount < 0 || account.toLowerCase().contains("drawing"); // deduction logic
+        long adjusted = isDeduction ? -Math.abs(amount) : amount; // ensure deductions reduce total
+        return new AccountEntry(account, typeIndex((String) accountsModel.getValueAt(row, 1)), amount, adjusted);
+    }
+
+    private void addToTotals(AccountEntry entry, int sign) {
+        if (entry.type >= 0) typeTotals[entry.type] += sign * entry.adjusted;
+    }
+
+    private static int typeIndex(String type) {
+        if (type == null) return -1;
+        switch (type) {
+            case "ASSET": return ASSET;
+            case "LIABILITY": return LIABILITY;
+            case "EQUITY": return EQUITY;
+            case "REVENUE": return REVENUE;
+            case "EXPENSE": return EXPENSE;
+            default: return -1;
+        }
+    }
+
+    // One accounts row as the balance sheet sees it
+    private static class AccountEntry {
+        final String name;
+        final int type;      // index into typeTotals, -1 for an unknown type
+        final long amount;   // balance, centavos
+        final long adjusted; // what it adds to its type's total (deductions count negative)
+        int sheetRow = -1;   // row in balanceLeftModel/balanceRightModel, -1 if not shown
+
+        AccountEntry(String name, int type, long amount, long adjusted) {
+            this.name = name;
+            this.type = type;
+            this.amount = amount;
+            this.adjusted = adjusted;
+        }
+    }
+
+    static String[] sampleAccounts() {
+        return new String[]{
+                "Cash", "Petty Cash", "Accounts Receivable", "Notes Receivable",
+                "Supplies", "Inventory", "Prepaid Rent", "Prepaid Insurance",
+                "Equipment", "Accumulated Depreciation", "Accounts Payable", "Notes Payable",
+                "Unearned Revenue", "Owner's Capital", "Owner's Drawings", "Retained Earnings",
+                "Sales Revenue", "Service Revenue", "Salaries Expense", "Rent Expense",
+                "Utilities Expense", "Supplies Expense", "Depreciation Expense", "Insurance Expense"
+        };
+    }
+}
@@ -1,151 +1,735 @@
-import javax.swing.*;
-import java.awt.*;
-
-public class AccountingSystemPinkUI extends JFrame {
-
-    public AccountingSystemPinkUI() {
-        setTitle("Accounting System");
-        setDefaultCloseOperation(EXIT_ON_CLOSE);
-        setSize(900, 550);
-        setLocationRelativeTo(null);
-        setLayout(new BorderLayout());
-
-        // ---------------- HEADER ----------------
-        JPanel header = new JPanel(new BorderLayout());
-        header.setBackground(new Color(220, 80, 120)); // pink header
-        JLabel title = new JLabel("Accounting System");
-        title.setForeground(Color.WHITE);
-        title.setFont(new Font("Segoe UI", Font.BOLD, 20));
-        title.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 0));
-        header.add(title, BorderLayout.WEST);
-
-        // header buttons (top right)
-        JPanel headerButtons = new JPanel();
-        headerButtons.setOpaque(false);
-        JButton btnSave = new JButton("💾");
-        JButton btnAdd = new JButton("+");
-        JButton btnHelp = new JButton("?");
-        styleHeaderButton(btnSave);
-        styleHeaderButton(btnAdd);
-        styleHeaderButton(btnHelp);
-        headerButtons.add(btnSave);
-        headerButtons.add(btnAdd);
-        headerButtons.add(btnHelp);
-        header.add(headerButtons, BorderLayout.EAST);
-        add(header, BorderLayout.NORTH);
-
-        // ---------------- TABS ----------------
-        JTabbedPane tabs = new JTabbedPane();
-        tabs.setFont(new Font("Segoe UI", Font.PLAIN, 13));
-        tabs.addTab("New Transaction", createTransactionPanel());
-        tabs.addTab("Transactions", new JPanel());
-        tabs.addTab("Accounts", new JPanel());
-        tabs.addTab("General Journal", new JPanel());
-        tabs.addTab("General Ledger", new JPanel());
-        tabs.addTab("Balance Sheet", new JPanel());
-        add(tabs, BorderLayout.CENTER);
-
-        setVisible(true);
-    }
-
-    // --------------------------------------
-    // Transaction Panel (the one in screenshot)
-    // --------------------------------------
-    private JPanel createTransactionPanel() {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 60, 20, 60));
-
-        JPanel formPanel = new JPanel(new GridBagLayout());
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(10, 10, 10, 10);
-        gbc.fill = GridBagConstraints.HORIZONTAL;
-
-        // Labels and Inputs
-        JTextField dateField = new JTextField(20);
-        JTextField descField = new JTextField(20);
-        JComboBox<String> debitBox = new JComboBox<>(new String[]{
-            "Cash [ASSET]", "Accounts Receivable [ASSET]", "Supplies [ASSET]"
-        });
-        JComboBox<String> creditBox = new JComboBox<>(new String[]{
-            "Owner's Capital [EQUITY]", "Service Revenue [REVENUE]"
-        });
-        JTextField amountField = new JTextField(20);
-
-        // --- Row 1
-        gbc.gridx = 0; gbc.gridy = 0;
-        formPanel.add(new JLabel("Date (YYYY-MM-DD):"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(dateField, gbc);
-
-        // --- Row 2
-        gbc.gridx = 0; gbc.gridy = 1;
-        formPanel.add(new JLabel("Description:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(descField, gbc);
-
-        // --- Row 3
-        gbc.gridx = 0; gbc.gridy = 2;
-        formPanel.add(new JLabel("Debit Account:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(debitBox, gbc);
-
-        // --- Row 4
-        gbc.gridx = 0; gbc.gridy = 3;
-        formPanel.add(new JLabel("Credit Account:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(creditBox, gbc);
-
-        // --- Row 5
-        gbc.gridx = 0; gbc.gridy = 4;
-        formPanel.add(new JLabel("Amount:"), gbc);
-        gbc.gridx = 1;
-        formPanel.add(amountField, gbc);
-
-        // Add Button
-        gbc.gridx = 1; gbc.gridy = 5;
-        JButton addBtn = new JButton("Add Transaction");
-        addBtn.setBackground(new Color(255, 105, 180)); // hot pink
-        addBtn.setForeground(Color.WHITE);
-        addBtn.setFocusPainted(false);
-        addBtn.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
-        formPanel.add(addBtn, gbc);
-
-        // Status area at bottom
-        JLabel status = new JLabel(" ");
-        status.setFont(new Font("Segoe UI", Font.ITALIC, 12));
-        status.setForeground(new Color(0, 153, 51));
-
-        addBtn.addActionListener(e -> {
-            if (descField.getText().isEmpty() || amountField.getText().isEmpty()) {
-                status.setText("⚠ Please fill in all fields.");
-                status.setForeground(Color.RED);
-            } else {
-                status.setText("✅ Transaction added successfully.");
-                status.setForeground(new Color(0, 153, 51));
-            }
-        });
-
-        panel.add(formPanel, BorderLayout.CENTER);
-        panel.add(status, BorderLayout.SOUTH);
-
-        return panel;
-    }
-
-    private void styleHeaderButton(JButton btn) {
-        btn.setFocusPainted(false);
-        btn.setBackground(new Color(255, 105, 180)); // pink tone
-        btn.setForeground(Color.WHITE);
-        btn.setPreferredSize(new Dimension(45, 25));
-        btn.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        btn.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-    }
-
-    public static void main(String[] args) {
-        try {
-            // Optional: modern Nimbus theme
-            UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
-        } catch (Exception ignored) {}
-
-        SwingUtilities.invokeLater(AccountingSystemPinkUI::new);
-    }
-}
+    import javax.swing.*;
+    import javax.swing.border.*;
+    import javax.swing.event.TableModelEvent;
+    import javax.swing.plaf.basic.BasicTabbedPaneUI;
+    import javax.swing.table.*;
+    import java.awt.*;
+    import java.text.NumberFormat;
+
+    public class AccountingSystem extends JFrame {
+
+        private static final Color BTN_GREEN = new Color(21, 120, 55);       
+        private static final Color BTN_GREEN_HOVER = new Color(34, 180, 90); 
+        private static final Color BTN_RED = new Color(200, 40, 40);
+        private static final Color BTN_RED_HOVER = new Color(230, 60, 60);
+        private static final Color HEADER_GREEN = new Color(21, 120, 55);
+        private static final Color TAB_SELECTED = new Color(34, 139, 70);
+        private static final Color TAB_UNSELECTED = new Color(225, 238, 230);
+        private static final Color PANEL_BG = new Color(235, 247, 237);
+        private static final Color TABLE_ALT_ROW = new Color(244, 252, 244);
+        private static final Color TABLE_ROW = new Color(255, 255, 255);
+        private static final Color TABLE_HEADER_BG = new Color(194, 225, 200);
+        private static final Color TABLE_SELECTION = new Color(34, 139, 70);
+
+        // 
+        private JComboBox<String> debit;
+        private JComboBox<String> credit;
+
+        // Models and bookkeeping live in AccountingModels (headless); these are the same objects
+        private final AccountingModels models = new AccountingModels();
+        // money cells hold Long centavos; their text is made (and cached) by the renderers
+        private final MoneyRenderer.TextCache moneyText = new MoneyRenderer.TextCache(true);
+        private final DefaultTableModel transactionsModel = models.transactionsModel; //stores all transactions
+        private final DefaultTableModel accountsModel = models.accountsModel; // account info and balances
+        private final DefaultTableModel journalModel = models.journalModel;
+        private final DefaultTableModel balanceLeftModel = models.balanceLeftModel;
+        private final DefaultTableModel balanceRightModel = models.balanceRightModel;
+        private final DefaultListModel<String> ledgerAccountListModel = models.ledgerAccountListModel;
+
+        // General Ledger tab: the selected account gets a new windowed model on the EDT (no rows are
+        // copied, so it is cheap), once per burst of posts
+        private JList<String> ledgerList;
+        private JTable ledgerTable;
+        private JScrollPane ledgerScroll;
+        private final CoalescingRefresh ledgerRefresh = new CoalescingRefresh(100, this::reloadSelectedLedger);
+
+        public AccountingSystem() {
+
+            super("Accounting System");
+
+            UIManager.put("List.background", new Color(235, 247, 237));
+            UIManager.put("List.foreground", Color.BLACK);
+            UIManager.put("List.selectionBackground", new Color(34, 139, 70));
+            UIManager.put("List.selectionForeground", Color.WHITE);
+
+            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            setSize(1200, 700);
+            setLocationRelativeTo(null);
+
+            setLayout(new BorderLayout());
+
+            JPanel header = new JPanel(new BorderLayout());
+            header.setBackground(HEADER_GREEN);
+            header.setBorder(new EmptyBorder(10, 14, 10, 14));
+            JLabel title = new JLabel("Accounting System");
+            title.setForeground(Color.WHITE);
+            title.setFont(new Font("Segoe UI", Font.BOLD, 30));
+            header.add(title, BorderLayout.WEST);
+            add(header, BorderLayout.NORTH);
+
+            JTabbedPane tabs = new JTabbedPane();
+            tabs.setUI(new GreenTabbedPaneUI());
+            tabs.setBackground(TAB_UNSELECTED);
+            tabs.setBorder(new CompoundBorder(new MatteBorder(2, 0, 0, 0, new Color(120, 120, 120)), new EmptyBorder(4, 4, 4, 4)));
+            tabs.setFont(new Font("Segoe UI", Font.BOLD, 13)); 
+
+            tabs.addTab("New Transaction", createNewTransactionPanel());
+            tabs.addTab("Transactions", createTransactionsPanel());
+            tabs.addTab("Accounts", createAccountsPanel());
+            tabs.addTab("General Journal", createBlankJournalPanel());
+            tabs.addTab("General Ledger", createGeneralLedgerPanel());
+            tabs.addTab("Balance Sheet", createBalanceSheetPanel());
+
+            add(tabs, BorderLayout.CENTER);
+
+            applyUIManagerTheme();
+        }
+
+        // 
+        private void applyUIManagerTheme() {
+            // TABLES
+            UIManager.put("Table.background", TABLE_ROW); // default color (WHITE)
+            UIManager.put("Table.alternateRowColor", TABLE_ALT_ROW); // alt row colors
+            UIManager.put("Table.selectionBackground", TABLE_SELECTION); // color when selected
+            UIManager.put("Table.selectionForeground", Color.WHITE);
+            UIManager.put("TableHeader.background", TABLE_HEADER_BG);
+            UIManager.put("TableHeader.foreground", Color.DARK_GRAY);
+            UIManager.put("ComboBox.background", Color.WHITE);
+            UIManager.put("ComboBox.selectionBackground", TABLE_SELECTION);
+            UIManager.put("List.selectionBackground", TABLE_SELECTION);
+            UIManager.put("List.selectionForeground", Color.WHITE);
+            UIManager.put("ScrollBar.width", 12);
+        }
+
+        private JPanel createNewTransactionPanel() {
+            JPanel p = new JPanel(new GridBagLayout());
+            p.setBackground(PANEL_BG);
+
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.insets = new Insets(14, 32, 0, 32);
+            gbc.fill = GridBagConstraints.HORIZONTAL;
+            gbc.anchor = GridBagConstraints.WEST;
+            gbc.gridx = 0;
+            gbc.gridy = 0;
+            gbc.gridwidth = 2;
+
+            JLabel heading = new JLabel("Add New Transaction");
+            heading.setFont(new Font("SansSerif", Font.BOLD, 25));
+            heading.setForeground(new Color(34, 139, 70));
+            heading.setHorizontalAlignment(SwingConstants.CENTER);
+
+            JPanel headingWrapper = new JPanel(new BorderLayout());
+            headingWrapper.setOpaque(false);
+            headingWrapper.setBorder(new EmptyBorder(10, 0, 20, 0));
+            headingWrapper.add(heading, BorderLayout.CENTER);
+
+            gbc.gridwidth = 2;
+            gbc.gridx = 0;
+            gbc.gridy = 0;
+            gbc.insets = new Insets(10, 0, 10, 0);
+            p.add(headingWrapper, gbc);
+
+            gbc.insets = new Insets(6, 40, 6, 40);
+            gbc.gridwidth = 1;
+            gbc.gridy++;
+
+            p.add(makeLabel("Date (YYYY-MM-DD)"), gbc);
+            gbc.gridy++;
+            JTextField dateField = new JTextField("");
+            dateField.setPreferredSize(new Dimension(1000, 28));
+            p.add(dateField, gbc);
+
+            gbc.gridy++;
+            p.add(makeLabel("Description"), gbc);
+            gbc.gridy++;
+            JTextField desc = new JTextField();
+            desc.setPreferredSize(new Dimension(1000, 28));
+            p.add(desc, gbc);
+
+            gbc.gridy++;
+            p.add(makeLabel("Debit Account"), gbc);
+            gbc.gridy++;
+            debit = new JComboBox<>(AccountingModels.sampleAccounts()); // <- use field, not local variable
+            styleLargeComboBox(debit);
+            applyComboPopupRenderer(debit);
+            debit.setPreferredSize(new Dimension(1000, 28));
+            debit.setSelectedIndex(-1);
+            p.add(debit, gbc);
+
+            gbc.gridy++;
+            p.add(makeLabel("Credit Account"), gbc);
+            gbc.gridy++;
+            credit = new JComboBox<>(AccountingModels.sampleAccounts()); // <- use field, not local variable
+            styleLargeComboBox(credit);
+            applyComboPopupRenderer(credit);
+            credit.setPreferredSize(new Dimension(1000, 28));
+            credit.setSelectedIndex(-1);
+            p.add(credit, gbc);
+
+            gbc.gridy++;
+            p.add(makeLabel("Amount"), gbc);
+            gbc.gridy++;
+            JFormattedTextField amount = new JFormattedTextField(NumberFormat.getNumberInstance());
+            amount.setText("");
+            amount.setColumns(20);
+            amount.setPreferredSize(new Dimension(1000, 28));
+            p.add(amount, gbc);
+
+            gbc.gridy++;
+            gbc.anchor = GridBagConstraints.LINE_END;
+            gbc.gridwidth = GridBagConstraints.REMAINDER;
+            gbc.fill = GridBagConstraints.HORIZONTAL;
+            gbc.insets = new Insets(18, 40, 18, 40);
+
+            JButton addBtn = new JButton("Add Transaction");
+            addBtn.setBackground(HEADER_GREEN);
+            addBtn.setForeground(Color.WHITE);
+            addBtn.setOpaque(true);
+            addBtn.setFocusPainted(false);
+            addBtn.setBorderPainted(false);
+            addBtn.setPreferredSize(new Dimension(1000, 27));
+            addBtn.setFont(new Font("Segoe UI", Font.BOLD, 12)); 
+            addHoverEffect(addBtn);
+
+            JLabel status = makeLabel(" ");
+
+            addBtn.addActionListener(e -> {
+                String date = dateField.getText().trim();
+                String description = desc.getText().trim();
+                String debitAcc = (String) debit.getSelectedItem();
+                String creditAcc = (String) credit.getSelectedItem();
+                long amt; // centavos
+                try {
+                    amt = Money.parse(amount.getText());
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(this, "Invalid amount. Enter numeric value.");
+                    return;
+                }
+
+                if (date.isEmpty() || description.isEmpty() || debitAcc == null || creditAcc == null) {
+                    JOptionPane.showMessageDialog(this, "Please complete all fields.");
+                    return;
+                }
+                if (amt <= 0) {
+                    JOptionPane.showMessageDialog(this, "Amount must be greater than zero.");
+                    return;
+                }
+                if (debitAcc.equals(creditAcc)) {
+                    int ok = JOptionPane.showConfirmDialog(this, "Debit and credit accounts are the same. Continue?", "Confirm", JOptionPane.YES_NO_OPTION);
+                    if (ok != JOptionPane.YES_OPTION) return;
+                }
+
+                models.postTransaction(date, description, debitAcc, creditAcc, amt);
+
+                // Clear input fields
+                desc.setText("");
+                amount.setText("");
+                dateField.setText("");
+                debit.setSelectedIndex(-1);
+                credit.setSelectedIndex(-1);
+
+                // no modal dialog per post: a status line, and the open ledger catches up once per burst
+                status.setText("Transaction added: " + description);
+                ledgerRefresh.request();
+            });
+
+            p.add(addBtn, gbc);
+
+            gbc.gridy++;
+            gbc.insets = new Insets(0, 40, 10, 40);
+            p.add(status, gbc);
+
+            return p;
+        }
+
+        private JPanel createTransactionsPanel() {
+            JPanel p = new JPanel(new BorderLayout());
+            p.setBackground(PANEL_BG);
+
+            JTable table = makeStyledTable(transactionsModel);
+            JScrollPane sc = new JScrollPane(table);
+            sc.setBorder(new EmptyBorder(12, 12, 12, 12));
+            p.add(sc, BorderLayout.CENTER);
+            return p;
+        }
+
+        private JPanel createAccountsPanel() {
+            JPanel p = new JPanel(new BorderLayout());
+            p.setBackground(PANEL_BG);
+
+            // ===================== BOTTOM PANEL =====================
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 8));
+            bottom.setOpaque(false);
+
+            JButton add = new JButton("Add Account");
+            add.setBackground(HEADER_GREEN);
+            add.setForeground(Color.WHITE);
+            add.setOpaque(true);
+            add.setFocusPainted(false);
+            add.setBorderPainted(false);
+            add.setPreferredSize(new Dimension(110, 25));
+            add.setFont(new Font("Segoe UI", Font.BOLD, 12));
+            addHoverEffect(add);
+
+            JButton remove = new JButton("Remove Selected Account");
+            remove.setBackground(new Color(220, 70, 70));
+            remove.setForeground(Color.WHITE);
+            remove.setOpaque(true);
+            remove.setBorderPainted(false);
+            remove.setPreferredSize(new Dimension(170, 25));
+            remove.setFont(new Font("Segoe UI", Font.BOLD, 12));
+
+            bottom.add(add);
+            bottom.add(remove);
+            styleRemoveButton(remove);
+            p.add(bottom, BorderLayout.SOUTH);
+
+            // ===================== ACCOUNTS TABLE =====================
+            JTable table = makeStyledTable(accountsModel);
+            JScrollPane sc = new JScrollPane(table);
+            sc.setBorder(new EmptyBorder(8, 8, 8, 8));
+            p.add(sc, BorderLayout.CENTER);
+
+            // ===================== CUSTOM RENDERER FOR DEDUCTIONS =====================
+            table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+                @Override
+                public Component getTableCellRendererComponent(JTable table, Object value,
+                                                            boolean isSelected, boolean hasFocus,
+                                                            int row, int column) {
+                    Component cell = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+
+                    if (column == 2) { // Only apply to "Amount" column
+                        String type = table.getValueAt(row, 1).toString();
+                        long cents = models.cellCents(value); // balance cell holds centavos
+
+                        // List of deduction account types
+                        boolean isDeduction = type.equalsIgnoreCase("Drawing")
+                                || type.equalsIgnoreCase("Expenses")
+                                || type.equalsIgnoreCase("Contra Asset")
+                                || type.equalsIgnoreCase("Contra Capital")
+                                || type.equalsIgnoreCase("Contra Revenue");
+
+                        if (isDeduction && cents > 0) cents = -cents; // shown in parentheses
+                        setText(moneyText.text(cents));
+                    }
+                    return cell;
+                }
+            });
+
+            // ===================== UPDATE COMBOBOXES ON ACCOUNT NAME CHANGE =====================
+            accountsModel.addTableModelListener(e -> {
+                if (e.getType() == TableModelEvent.UPDATE && e.getColumn() == 0) {
+                    int row = e.getFirstRow();
+                    String newName = (String) accountsModel.getValueAt(row, 0);
+                    DefaultComboBoxModel<String> debitModel = (DefaultComboBoxModel<String>) debit.getModel();
+                    if (row < debitModel.getSize()) {
+                        debitModel.removeElementAt(row);
+                        debitModel.insertElementAt(newName, row);
+                    }
+
+                    DefaultComboBoxModel<String> creditModel = (DefaultComboBoxModel<String>) credit.getModel();
+                    if (row < creditModel.getSize()) {
+                        creditModel.removeElementAt(row);
+                        creditModel.insertElementAt(newName, row);
+                    }
+                    // the Ledger list item is renamed by AccountingModels, which knows the old name
+                }
+            });
+
+            // ===================== ADD ACCOUNT =====================
+            add.addActionListener(e -> {
+                String newAccount = "New Account " + accountsModel.getRowCount();
+                String newType = "ASSET"; // default type
+
+                accountsModel.addRow(new Object[]{newAccount, newType, 0L});
+                int r = accountsModel.getRowCount() - 1;
+                table.setRowSelectionInterval(r, r);
+
+                models.addAccountToLedgerList(newAccount);
+
+                if (((DefaultComboBoxModel<String>) debit.getModel()).getIndexOf(newAccount) == -1) {
+                    debit.addItem(newAccount);
+                }
+                if (((DefaultComboBoxModel<String>) credit.getModel()).getIndexOf(newAccount) == -1) {
+                    credit.addItem(newAccount);
+                }
+            });
+
+            // ===================== REMOVE ACCOUNT =====================
+            remove.addActionListener(e -> {
+                int sel = table.getSelectedRow();
+                if (sel >= 0) {
+                    String accountToRemove = (String) accountsModel.getValueAt(sel, 0);
+                    accountsModel.removeRow(sel); // balance sheet and Ledger list follow via AccountingModels
+
+                    // Remove from debit and credit combo boxes
+                    debit.removeItem(accountToRemove);
+                    credit.removeItem(accountToRemove);
+
+                } else {
+                    JOptionPane.showMessageDialog(this, "Select an account row to remove (UI-only).");
+                }
+            });
+
+            return p;
+        }
+
+        private Dimension Dimension(int i, int j) {
+            // FIX: The original code had an unimplemented method 'Dimension(int, int)'.
+            // Assuming it was meant to be java.awt.Dimension's constructor.
+            return new Dimension(i, j);
+        }
+
+        private JPanel createBlankJournalPanel() {
+            JPanel p = new JPanel(new BorderLayout());
+            p.setBackground(PANEL_BG);
+            JTable table = makeStyledTable(journalModel);
+            p.add(new JScrollPane(table), BorderLayout.CENTER);
+            return p;
+        }
+
+        private JPanel createGeneralLedgerPanel() {
+            JPanel p = new JPanel(new BorderLayout());
+            p.setBackground(PANEL_BG);
+
+            JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT);
+            split.setDividerLocation(300);
+            split.setResizeWeight(0.3);
+            split.setBorder(null);
+
+            // Use the class-level list model
+            JList<String> list = new JList<>(ledgerAccountListModel);
+            ledgerList = list;
+            list.setSelectionBackground(TABLE_SELECTION);
+            list.setSelectionForeground(Color.WHITE);
+            list.setFont(new Font("SansSerif", Font.PLAIN, 13));
+            list.setBorder(new EmptyBorder(8, 8, 8, 8));
+
+            JScrollPane leftScroll = new JScrollPane(list);
+            leftScroll.setBorder(new CompoundBorder(
+                    new EmptyBorder(6, 6, 6, 6), 
+                    new LineBorder(new Color(160, 160, 160))
+            ));
+            split.setLeftComponent(leftScroll);
+
+            // Right table for transactions of selected account
+            JTable table = makeStyledTable(new DefaultTableModel(
+                    new String[]{"Date", "Description", "Debit", "Credit", "Running"}, 0
+            ));
+            JScrollPane rightScroll = new JScrollPane(table);
+            split.setRightComponent(rightScroll);
+            ledgerTable = table;
+            ledgerScroll = rightScroll;
+
+            // Selection listener to filter the ledger table based on selected account
+            list.addListSelectionListener(e -> {
+                if (!e.getValueIsAdjusting() && list.getSelectedValue() != null) {
+                    String selected = list.getSelectedValue();
+                    // Extract account name (e.g., "Cash (ASSET) — ₱1,000.00")
+                    String accountName = selected.substring(0, selected.indexOf(" ("));
+                    filterLedger(accountName, table, rightScroll);
+                } else if (!e.getValueIsAdjusting() && list.getSelectedValue() == null) {
+                    // Clear the table if no account is selected
+                    table.setModel(new DefaultTableModel(
+                            new String[]{"Date", "Description", "Debit", "Credit", "Running"}, 0
+                    ));
+                }
+            });
+
+            p.add(split, BorderLayout.CENTER);
+            return p;
+        }
+        
+        // FIX: Method to dynamically filter the Ledger table based on selected account
+        // (the model is windowed: rows and running balances are made as they are scrolled to)
+        private void filterLedger(String accountName, JTable table, JScrollPane scrollPane) {
+            table.setModel(models.filterLedger(accountName));
+            scrollPane.revalidate();
+        }
+
+        private void reloadSelectedLedger() {
+            String selected = ledgerList == null ? null : ledgerList.getSelectedValue();
+            if (selected != null && selected.contains(" (")) {
+                filterLedger(selected.substring(0, selected.indexOf(" (")), ledgerTable, ledgerScroll);
+            }
+        }
+
+        private JPanel createBalanceSheetPanel() {
+            JPanel p = new JPanel(new GridLayout(1, 2, 12, 12));
+            p.setBackground(PANEL_BG);
+            p.setBorder(new EmptyBorder(8, 8, 8, 8));
+
+            JPanel left = new JPanel(new BorderLayout());
+            left.setBackground(PANEL_BG);
+            JLabel lLabel = new JLabel("Assets");
+            lLabel.setBorder(new EmptyBorder(6, 6, 6, 6));
+            lLabel.setFont(new Font("SansSerif", Font.BOLD, 14));
+            left.add(lLabel, BorderLayout.NORTH);
+            JTable leftTable = makeStyledTable(balanceLeftModel);
+            left.add(new JScrollPane(leftTable), BorderLayout.CENTER);
+
+            JPanel right = new JPanel(new BorderLayout());
+            right.setBackground(PANEL_BG);
+            JLabel rLabel = new JLabel("Liabilities & Equity");
+            rLabel.setBorder(new EmptyBorder(6, 6, 6, 6));
+            rLabel.setFont(new Font("SansSerif", Font.BOLD, 14));
+            right.add(rLabel, BorderLayout.NORTH);
+            JTable rightTable = makeStyledTable(balanceRightModel);
+            right.add(new JScrollPane(rightTable), BorderLayout.CENTER);
+
+            p.add(left);
+            p.add(right);
+            return p;
+        }
+
+        private JLabel makeLabel(String text) {
+            JLabel l = new JLabel(text);
+            l.setFont(new Font("Segeo UI", Font.PLAIN, 13));
+            l.setForeground(new Color(40, 90, 40));
+            l.setBorder(new EmptyBorder(6, 6, 4, 6));
+            return l;
+        }
+
+        private void styleLargeComboBox(JComboBox<String> combo) {
+            combo.setPreferredSize(new Dimension(200, 26));
+            combo.setFont(new Font("SansSerif", Font.PLAIN, 13));
+            combo.setOpaque(true);
+            combo.setBackground(Color.WHITE);
+            combo.setBorder(new CompoundBorder(new LineBorder(new Color(180, 180, 180)), new EmptyBorder(3, 6, 3, 6)));
+        }
+
+        private void applyComboPopupRenderer(JComboBox<String> combo) {
+            combo.setRenderer(new DefaultListCellRenderer() {
+                @Override
+                public Component getListCellRendererComponent(JList<?> list, Object value,
+                                                            int index, boolean isSelected,
+                                                            boolean cellHasFocus) {
+
+                    Component c = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+
+                    if (isSelected) {
+                        c.setBackground(new Color(34, 139, 70));
+                        c.setForeground(Color.WHITE);
+                    } else {
+                        c.setBackground(new Color(235, 247, 237));
+                        c.setForeground(Color.BLACK);
+                    }
+
+                    return c;
+                }
+            });
+        }
+
+        private JTable makeStyledTable(TableModel model) {
+            JTable table = new JTable(model);
+            table.setFillsViewportHeight(true);
+            table.setRowHeight(22);
+            table.setIntercellSpacing(new Dimension(1, 1));
+            table.setGridColor(new Color(210, 210, 210));
+            table.getTableHeader().setReorderingAllowed(false);
+            table.getTableHeader().setDefaultRenderer(new HeaderRenderer(table.getTableHeader().getDefaultRenderer()));
+            table.setSelectionBackground(TABLE_SELECTION);
+            table.setSelectionForeground(Color.WHITE);
+            table.setShowHorizontalLines(false);
+            table.setShowVerticalLines(false);
+            table.setFont(new Font("SansSerif", Font.PLAIN, 13));
+
+            AlternateRowRenderer renderer = new AlternateRowRenderer();
+            table.setDefaultRenderer(Object.class, renderer);
+            table.setDefaultRenderer(Long.class, renderer); // money columns of the ledger model
+            return table;
+        }
+
+        private class HeaderRenderer implements TableCellRenderer {
+            private final TableCellRenderer delegate;
+
+            HeaderRenderer(TableCellRenderer delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                                                        boolean isSelected, boolean hasFocus, int row, int column) {
+                Component c = delegate.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                c.setBackground(TABLE_HEADER_BG);
+                c.setForeground(Color.DARK_GRAY);
+                c.setFont(new Font("SansSerif", Font.BOLD, 12));
+                if (c instanceof JComponent) {
+                    ((JComponent) c).setBorder(new MatteBorder(0, 0, 1, 0, new Color(160, 160, 160)));
+                }
+                return c;
+            }
+        }
+
+    private class AlternateRowRenderer extends DefaultTableCellRenderer {
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value instanceof Long ? moneyText.text((Long) value) : value == null ? "" : value.toString());
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                                                    boolean isSelected, boolean hasFocus, int row, int column) {
+
+            Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+
+            if (isSelected) {
+                c.setBackground(TABLE_SELECTION);
+                c.setForeground(Color.WHITE);
+            } else {
+                if (row % 2 == 0) c.setBackground(TABLE_ROW);
+                else c.setBackground(TABLE_ALT_ROW);
+                c.setForeground(Color.BLACK);
+            }
+
+            setBorder(new EmptyBorder(4, 6, 4, 6));
+
+            if (value != null) {
+                String text = value.toString();
+                if (text.equals("Total Assets") || text.equals("Total Liabilities & Equity")) {
+                    c.setFont(new Font("SansSerif", Font.BOLD, 13));
+                } else {
+                    c.setFont(new Font("SansSerif", Font.PLAIN, 13));
+                }
+            }
+            
+            // Ensure that number columns are right-aligned
+            if (table.getModel().getColumnName(column).contains("Amount") || 
+                table.getModel().getColumnName(column).contains("Debit") ||
+                table.getModel().getColumnName(column).contains("Credit") ||
+                table.getModel().getColumnName(column).contains("Balance") ||
+                table.getModel().getColumnName(column).contains("Running")) {
+                setHorizontalAlignment(SwingConstants.LEFT);
+            } else {
+                setHorizontalAlignment(SwingConstants.LEFT);
+            }
+
+            return c;
+        }
+
+    }
+
+        private class GreenTabbedPaneUI extends BasicTabbedPaneUI {
+            private final int arc = 6;
+
+            @Override
+            protected void installDefaults() {
+                super.installDefaults();
+                tabAreaInsets.left = 8;
+                tabInsets = new Insets(6, 14, 6, 14);
+                selectedTabPadInsets = new Insets(2, 2, 2, 2);
+            }
+
+            @Override
+            protected void paintTabBackground(Graphics g, int tabPlacement, int tabIndex,
+                                            int x, int y, int w, int h, boolean isSelected) {
+                Graphics2D g2 = (Graphics2D) g;
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+                if (isSelected) {
+                    g2.setColor(TAB_SELECTED);
+                } else {
+                    g2.setColor(new Color(245, 250, 245));
+                }
+
+                g2.fillRoundRect(x + 2, y + 1, w - 4, h - 2, arc, arc);
+
+                g2.setColor(new Color(120, 120, 120, 120));
+                g2.drawRoundRect(x + 2, y + 1, w - 4, h - 2, arc, arc);
+            }
+
+            @Override
+            protected void paintContentBorder(Graphics g, int tabPlacement, int selectedIndex) {
+                g.setColor(new Color(120, 120, 120));
+                g.drawLine(0, 33, tabPane.getWidth(), 33);
+                g.setColor(PANEL_BG);
+                g.fillRect(0, 34, tabPane.getWidth(), tabPane.getHeight() - 34);
+            }
+            
+            
+
+
+            @Override
+            protected void paintTabBorder(Graphics g, int tabPlacement, int tabIndex,
+                                        int x, int y, int w, int h, boolean isSelected) {
+            }
+
+            @Override
+            protected void paintFocusIndicator(Graphics g, int tabPlacement, Rectangle[] rects,
+                                            int tabIndex, Rectangle iconRect, Rectangle textRect, boolean isSelected) {
+            }
+
+            @Override
+            protected void paintText(Graphics g, int tabPlacement, Font font, FontMetrics metrics,
+                                    int tabIndex, String title, Rectangle textRect, boolean isSelected) {
+                g.setFont(new Font("SansSerif", Font.PLAIN, 13));
+                g.setColor(isSelected ? Color.WHITE : new Color(40, 40, 40));
+                SwingUtilities2.drawStringUnderlineCharAt(tabPane, g, title, -1,
+                        textRect.x, textRect.y + metrics.getAscent());
+            }
+        }
+
+        private static class SwingUtilities2 {
+            public static void drawStringUnderlineCharAt(JComponent c, Graphics g, String s, int underlinedIndex, int x, int y) {
+                g.drawString(s, x, y);
+                if (underlinedIndex >= 0 && underlinedIndex < s.length()) {
+                    FontMetrics fm = g.getFontMetrics();
+                    int underlineY = y + 1;
+                    int underlineStart = x + fm.stringWidth(s.substring(0, underlinedIndex));
+                    int underlineEnd = underlineStart + fm.charWidth(s.charAt(underlinedIndex));
+                    g.drawLine(underlineStart, underlineY, underlineEnd, underlineY);
+                }
+            }
+        }
+
+
+        private void addHoverEffect(JButton btn) {
+        btn.setBackground(BTN_GREEN);
+        btn.setForeground(Color.WHITE);
+        btn.setFocusPainted(false);
+        btn.setBorder(BorderFactory.createLineBorder(new Color(15, 90, 40), 2));
+
+        btn.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                btn.setBackground(BTN_GREEN_HOVER); 
+            }
+
+            @Override
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                btn.setBackground(BTN_GREEN); 
+            }
+        });
+    }
+    private void styleRemoveButton(JButton btn) {
+        btn.setBackground(BTN_RED);
+        btn.setForeground(Color.WHITE);
+        btn.setFocusPainted(false);
+        btn.setBorder(BorderFactory.createLineBorder(new Color(150, 20, 20), 2));
+
+        btn.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                btn.setBackground(BTN_RED_HOVER); 
+            }
+
+            @Override
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                btn.setBackground(BTN_RED); 
+            }
+        });
+    }
+
+        public static void main(String[] args) {
+            try {
+                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+            } catch (Exception ignored) {
+            }
+
+            SwingUtilities.invokeLater(() -> {
+                AccountingSystem ui = new AccountingSystem();
+                ui.setVisible(true);
+            });
+        }
+    }
@@ -0,0 +1,964 @@
+//hehehehe this is my space now -Kobe the great
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.plaf.FontUIResource;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.text.NumberFormatter;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccountingSystem3
+ *
+ * - Combines your second sample and requested improvements
+ * - No "Remove" button in New Transaction tab
+ * - "Remove Selected Account" in Accounts tab (prevents deletion if account used)
+ * - Balance Sheet shows only accounts with transactions or non-zero balances, as of today or
+ *   any past date (per-account DailyTotals answer each balance in O(log days))
+ * - General Ledger shows richer account titles, optionally limited to a From/To period
+ * - Header has no "Accounts" button
+ * - Auto-create accounts typed into Debit/Credit boxes with hybrid type detection:
+ *     1) If account name contains a [TYPE] token (e.g. "Cash [ASSET]") that type is used
+ *     2) Otherwise we attempt to guess by keywords
+ *     3) When user explicitly adds a new account they can choose the type manually
+ * - Book is persisted to an append-only transaction log and replayed on startup;
+ *   a binary snapshot written on exit lets startup skip the part of the log it covers.
+ *   A book that does not load cleanly is not opened (the app exits, files untouched)
+ * - Balance checkpoints (every account's totals at a log position) are written every so
+ *   often while the book is open, so startup after a crash and Re-verify only redo the
+ *   balances of the entries after the latest one
+ * - "Close Period..." (Accounts tab) rolls revenue and expense into an equity account and
+ *   moves the closed entries to compressed segments in the archive directory; they are read
+ *   back only for a report or ledger that reaches into a closed period
+ *     -Daccounting.log=<file>           (default accounting-book.log)
+ *     -Daccounting.snapshot=<file>      (default accounting-book.snap)
+ *     -Daccounting.checkpoint=<file>    (default accounting-book.ckpt)
+ *     -Daccounting.archive=<dir>        (default accounting-book.archive)
+ *     -Daccounting.checkpointIntervalMs=<ms> (default 60000; 0 writes one on exit only)
+ *     -Daccounting.fsync=ALWAYS|INTERVAL|NEVER  (default INTERVAL)
+ *     -Daccounting.fsyncIntervalMs=<ms> (default 1000), -Daccounting.commitDelayMs=<ms> (default 5)
+ */
+public class AccountingSystem3_fixed extends JFrame {
+
+    enum AccountType { ASSET, LIABILITY, EQUITY, REVENUE, EXPENSE, UNKNOWN }
+
+    static class Account {
+        final String name;       // canonical name (no [TYPE] token)
+        final int id;            // AccountIds; balances live in PostingEngine's arrays under this id
+        AccountType type;
+        Account(String name, AccountType type) { this.name = name; this.id = AccountIds.intern(name); this.type = type; }
+    }
+
+    static class Transaction {
+        static final int MAX_DESCRIPTION = 10_000; // characters; keeps a logged entry well inside writeUTF's 64 KB
+        final int epochDay;      // date, parsed once (LocalDate.toEpochDay)
+        final String description;
+        final int debitId;       // AccountIds of the canonical names
+        final int creditId;
+        final long amount;       // centavos
+        Transaction(String date, String description, String debit, String credit, long amount) {
+            this(epochDayOf(date), description, AccountIds.intern(debit), AccountIds.intern(credit), amount);
+        }
+        Transaction(int epochDay, String description, int debitId, int creditId, long amount) {
+            this.epochDay = epochDay; this.description = description; this.debitId = debitId; this.creditId = creditId; this.amount = amount;
+        }
+        String date() { return LocalDate.ofEpochDay(epochDay).format(DATE_FMT); }
+        String debit() { return AccountIds.name(debitId); }
+        String credit() { return AccountIds.name(creditId); }
+    }
+
+    /** Epoch day of a yyyy-MM-dd date; throws DateTimeParseException if it is not one. */
+    static int epochDayOf(String date) {
+        return (int) LocalDate.parse(date, DATE_FMT).toEpochDay();
+    }
+
+    // Data stores (owned by the posting engine; these are read-only live views)
+    private final PostingEngine engine = new PostingEngine();
+    private final Map<String, Account> accounts = engine.accounts();
+    private final List<Transaction> transactions = engine.transactions();
+
+    // Suggested accounts (with bracket tokens)
+    private final String[] suggestedAccounts = {
+        "Cash [ASSET]", "Petty Cash [ASSET]", "Accounts Receivable [ASSET]",
+        "Notes Receivable [ASSET]", "Supplies [ASSET]", "Inventory [ASSET]",
+        "Prepaid Rent [ASSET]", "Prepaid Insurance [ASSET]", "Equipment [ASSET]",
+        "Accumulated Depreciation [ASSET]",
+
+        "Accounts Payable [LIABILITY]", "Notes Payable [LIABILITY]", "Unearned Revenue [LIABILITY]",
+
+        "Owner's Capital [EQUITY]", "Owner's Drawings [EQUITY]", "Retained Earnings [EQUITY]",
+
+        "Sales Revenue [REVENUE]", "Service Revenue [REVENUE]",
+
+        "Salaries Expense [EXPENSE]", "Rent Expense [EXPENSE]",
+        "Utilities Expense [EXPENSE]", "Supplies Expense [EXPENSE]",
+        "Depreciation Expense [EXPENSE]", "Insurance Expense [EXPENSE]"
+    };
+
+    // UI models (headless; see BookViews)
+    private final BookViews views = new BookViews(engine);
+    private final TransactionTableModel transModel = views.transModel;
+    private final JournalTableModel journalModel = views.journalModel;
+    private final DefaultTableModel accModel = views.accModel;
+    private final LedgerTableModel ledgerModel = views.ledgerModel;
+    private final DefaultTableModel assetsModel = views.assetsModel;
+    private final DefaultTableModel leModel = views.leModel;
+
+    // UI components
+    private JTextField dateField, descField;
+    private JFormattedTextField amountField;
+    private JComboBox<String> debitCombo, creditCombo;
+    private AccountListModel accountNames; // shared by the two combos, follows engine account changes
+    private JTable transTable, accTable, journalTable, ledgerTable, assetsTable, leTable;
+    private JList<String> ledgerList;
+    private JTextField ledgerFrom, ledgerTo; // optional period (yyyy-MM-dd, blank = open)
+    private JTextField balanceAsOf;          // balance sheet date (blank = current)
+    private JTextField reportFrom, reportTo; // report period (blank = open)
+    private JTextArea reportText;
+
+    private final ReportEngine reports = new ReportEngine();
+    private IngestServer ingest; // null unless accounting.http.port is set
+    private ScheduledExecutorService checkpointer; // null without a log
+    private int storeScans; // report/re-verify workers reading the store; a period close waits for them
+    private final CoalescingRefresh viewRefresh = new CoalescingRefresh(100, this::rebuildViews); // one rebuild per burst of changes
+
+    // Formatting (money is formatted with Money.format only when it is displayed)
+    private final MoneyRenderer moneyRenderer = new MoneyRenderer(false);
+    static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd"); // shared with CsvImporter
+
+    // Theme
+    private final Color softBlue = new Color(235,243,250);
+    private final Color accentBlue = new Color(30,100,180);
+    private final Color white = Color.WHITE;
+
+    public AccountingSystem3_fixed() {
+        super("Accounting System 3 (fixed)");
+        loadAccountRules();
+        openBook();
+        if(accounts.isEmpty()) initDefaults(); // fresh book only
+        accountNames = new AccountListModel(accounts.keySet());
+        engine.addAccountListener(accountNames);
+        initLookAndFeel();
+        initUI();
+        rebuildViews();
+        startIngestServer();
+        addWindowListener(new WindowAdapter(){
+            @Override public void windowClosing(WindowEvent e){ closeBook(); }
+        });
+        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        setSize(1100,720);
+        setLocationRelativeTo(null);
+    }
+
+    private void initDefaults(){
+        
+        for(String s : suggestedAccounts) {
+            String name = s.contains("[") ? s.substring(0, s.indexOf('[')).trim() : s.trim();
+            AccountType t = detectTypeFromBracket(s);
+            if(t == AccountType.UNKNOWN) t = detectTypeByKeyword(name);
+            engine.openAccount(name, t);
+        }
+    }
+
+    // optional "keyword = TYPE" lines (-Daccounting.rules=file), matched ahead of the built-in keywords
+    private void loadAccountRules(){
+        String file = System.getProperty("accounting.rules");
+        if(file == null) return;
+        try {
+            AccountClassifier.useRules(AccountClassifier.parseRules(Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)));
+        } catch(IOException | RuntimeException ex){
+            JOptionPane.showMessageDialog(null, "Could not load account rules '"+file+"': "+ex.getMessage()+"\nUsing the built-in keywords.",
+                    "Account rules", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // load the snapshot (if it matches the log), replay the log tail after it, with balances
+    // seeded from the latest checkpoint inside that tail, then keep logging
+    // anything that stops the book from loading whole (a bad record in the middle of the log,
+    // an unreadable snapshot or archive) refuses to open it: a half-replayed book would be
+    // edited and logged out of step with the file. replay() only truncates once it has read
+    // to the end, so the files are left as they were
+    private void openBook(){
+        String file = System.getProperty("accounting.log", "accounting-book.log");
+        TransactionLog log = null;
+        try {
+            log = new TransactionLog(Paths.get(file),
+                    TransactionLog.FsyncPolicy.parse(System.getProperty("accounting.fsync")),
+                    Long.getLong("accounting.fsyncIntervalMs", 1000L),
+                    Long.getLong("accounting.commitDelayMs", 5L));
+            engine.attachArchive(new PeriodArchive(archivePath())); // the log may close periods
+            long from = 0L;
+            long covered = BookSnapshot.logPosition(snapshotPath());
+            if(covered >= 0 && covered <= log.size()) from = BookSnapshot.load(snapshotPath(), engine);
+            BalanceCheckpoint cp = BalanceCheckpoint.read(checkpointPath());
+            if(cp != null && (cp.logPosition < from || cp.logPosition > log.size())) cp = null; // older than the snapshot, or not in this log
+            log.replay(engine, from, cp);
+            engine.attachLog(log);
+            startCheckpoints();
+        } catch(IOException | RuntimeException ex){
+            if(log != null){
+                try { log.close(); } catch(IOException ignored){ /* nothing was appended */ }
+            }
+            JOptionPane.showMessageDialog(null, "Could not open book '"+file+"': "+ex.getMessage()
+                    +"\nThe book files were left as they are. Repair or move them aside, then start again.",
+                    "Persistence", JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+        }
+    }
+
+    private void closeBook(){
+        if(ingest != null) ingest.close(); // stop taking requests before the log closes
+        TransactionLog log = engine.log();
+        if(log == null) return;
+        if(checkpointer != null) stopCheckpoints();
+        try {
+            try { saveSnapshot(log); }
+            finally { log.close(); }
+        }
+        catch(IOException ex){ JOptionPane.showMessageDialog(this,"Could not save book: "+ex.getMessage(),"Persistence",JOptionPane.ERROR_MESSAGE); }
+    }
+
+    // the log stays the book of record; run on the EDT (or at exit), so nothing posts meanwhile
+    private void saveSnapshot(TransactionLog log) throws IOException {
+        log.sync();
+        BookSnapshot.write(engine, log.position(), snapshotPath());
+        saveCheckpoint(engine.checkpoint());
+    }
+
+    // also called from the checkpoint thread
+    private synchronized void saveCheckpoint(BalanceCheckpoint cp) throws IOException {
+        BalanceCheckpoint.write(cp, checkpointPath());
+    }
+
+    // optional JSON endpoint (-Daccounting.http.port=8080); loopback only unless accounting.http.host says otherwise
+    private void startIngestServer(){
+        Integer port = Integer.getInteger("accounting.http.port");
+        if(port == null) return;
+        String host = System.getProperty("accounting.http.host", "127.0.0.1");
+        try {
+            ingest = new IngestServer(engine, new InetSocketAddress(host, port), this::postOnEdt, Long.getLong("accounting.http.commitDelayMs", 2L));
+        } catch(IOException | RuntimeException ex){
+            JOptionPane.showMessageDialog(null, "Could not start the ingest server on "+host+":"+port+": "+ex.getMessage(),
+                    "Ingest", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // ingested batches are posted on the EDT, like a click, and shown with one refresh per batch
+    private void postOnEdt(Runnable post){
+        SwingUtilities.invokeLater(() -> {
+            int first = transactions.size();
+            post.run();
+            if(transactions.size() > first) views.transactionsAppended(first, transactions.size() - 1);
+            refreshAllViews();
+        });
+    }
+
+    private Path snapshotPath(){
+        return Paths.get(System.getProperty("accounting.snapshot", "accounting-book.snap"));
+    }
+
+    private Path checkpointPath(){
+        return Paths.get(System.getProperty("accounting.checkpoint", "accounting-book.ckpt"));
+    }
+
+    private Path archivePath(){
+        return Paths.get(System.getProperty("accounting.archive", "accounting-book.archive"));
+    }
+
+    // a checkpoint every accounting.checkpointIntervalMs, when the log has grown since the last
+    private void startCheckpoints(){
+        long every = Long.getLong("accounting.checkpointIntervalMs", 60_000L);
+        if(every <= 0) return;
+        checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "balance-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        checkpointer.scheduleWithFixedDelay(this::writeCheckpoint, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    private void writeCheckpoint(){
+        TransactionLog log = engine.log();
+        BalanceCheckpoint last = engine.latestCheckpoint();
+        if(last != null && last.logPosition == log.appendedPosition()) return; // nothing new
+        try {
+            BalanceCheckpoint cp = engine.checkpoint();
+            log.sync(); // the records it covers must be on disk before it is
+            saveCheckpoint(cp);
+            engine.useCheckpoint(cp);
+        } catch(IOException | RuntimeException ex){
+            // nothing to report: the log is still complete, startup just replays more of it,
+            // and the next run tries again
+        }
+    }
+
+    private void stopCheckpoints(){
+        checkpointer.shutdownNow();
+        try { checkpointer.awaitTermination(5, TimeUnit.SECONDS); }
+        catch(InterruptedException e){ Thread.currentThread().interrupt(); }
+    }
+
+    private void initLookAndFeel(){
+        try {
+            for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
+                if ("Nimbus".equals(info.getName())) {
+                    UIManager.setLookAndFeel(info.getClassName());
+                    UIManager.put("Table.font", new FontUIResource("SansSerif", Font.PLAIN, 13));
+                    UIManager.put("TableHeader.font", new FontUIResource("SansSerif", Font.BOLD, 13));
+                    break;
+                }
+            }
+        } catch(Exception ignored){}
+    }
+
+    private void initUI(){
+        setLayout(new BorderLayout());
+        add(createHeader(), BorderLayout.NORTH);
+        add(createTabbedPane(), BorderLayout.CENTER);
+    }
+
+    private Component createHeader(){
+        JLabel header = new JLabel("   Accounting System 3");
+        header.setOpaque(true);
+        header.setBackground(accentBlue);
+        header.setForeground(white);
+        header.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        header.setBorder(BorderFactory.createEmptyBorder(12,14,12,10));
+        return header;
+    }
+
+    private JComponent createTabbedPane(){
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+
+        tabs.addTab("New Transaction", createNewTransactionPanel());
+        tabs.addTab("Transactions", createTransactionsPanel());
+        tabs.addTab("Accounts", createAccountsPanel());
+        tabs.addTab("General Journal", createJournalPanel());
+        tabs.addTab("General Ledger", createLedgerPanel());
+        tabs.addTab("Balance Sheet", createBalancePanel());
+        tabs.addTab("Reports", createReportsPanel());
+
+        return tabs;
+    }
+
+    // ---------------------- New Transaction ----------------
+    private JComponent createNewTransactionPanel(){
+        JPanel p = new JPanel(new BorderLayout());
+        p.setBackground(softBlue);
+        p.setBorder(new EmptyBorder(12,12,12,12));
+
+        JLabel title = new JLabel("Add New Transaction", SwingConstants.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 20));
+        title.setForeground(accentBlue);
+        title.setBorder(new EmptyBorder(8,0,12,0));
+        p.add(title, BorderLayout.NORTH);
+
+        JPanel form = new JPanel(new GridBagLayout());
+        form.setBackground(softBlue);
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(8,16,8,16);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.gridx=0; gbc.gridy=0; gbc.weightx=1;
+
+        dateField = new JTextField(DATE_FMT.format(LocalDate.now()));
+        descField = new JTextField();
+        NumberFormatter nf = new NumberFormatter(NumberFormat.getNumberInstance());
+        nf.setValueClass(Double.class); nf.setMinimum(0.0); nf.setAllowsInvalid(false);
+        amountField = new JFormattedTextField(nf); amountField.setValue(0.0);
+
+        debitCombo = new JComboBox<>(); AccountListModel.installTypeAhead(debitCombo, accountNames.newComboModel());
+        creditCombo = new JComboBox<>(); AccountListModel.installTypeAhead(creditCombo, accountNames.newComboModel());
+
+        form.add(new JLabel("Date (YYYY-MM-DD)"), gbc);
+        gbc.gridy++; form.add(dateField, gbc);
+        gbc.gridy++; form.add(new JLabel("Description"), gbc);
+        gbc.gridy++; form.add(descField, gbc);
+        gbc.gridy++; form.add(new JLabel("Debit Account"), gbc);
+        gbc.gridy++; form.add(debitCombo, gbc);
+        gbc.gridy++; form.add(new JLabel("Credit Account"), gbc);
+        gbc.gridy++; form.add(creditCombo, gbc);
+        gbc.gridy++; form.add(new JLabel("Amount"), gbc);
+        gbc.gridy++; form.add(amountField, gbc);
+
+        gbc.gridy++;
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.setBackground(softBlue);
+        JButton addBtn = new JButton("Add Transaction");
+        addBtn.setBackground(accentBlue); addBtn.setForeground(white); addBtn.setFocusPainted(false);
+        buttons.add(addBtn);
+        form.add(buttons, gbc);
+
+        addBtn.addActionListener(e -> onAddTransaction());
+
+        p.add(form, BorderLayout.CENTER);
+        return p;
+    }
+
+    private void onAddTransaction(){
+        String date = dateField.getText().trim();
+        String desc = descField.getText().trim();
+        String debitRaw = Objects.toString(debitCombo.getEditor().getItem(),"").trim();
+        String creditRaw = Objects.toString(creditCombo.getEditor().getItem(),"").trim();
+
+        long amount;
+        try { amount = Money.ofDouble(((Number) amountField.getValue()).doubleValue()); }
+        catch (Exception ex) { JOptionPane.showMessageDialog(this,"Invalid amount.","Validation",JOptionPane.WARNING_MESSAGE); return; }
+
+        if(date.isEmpty() || desc.isEmpty() || debitRaw.isEmpty() || creditRaw.isEmpty()){
+            JOptionPane.showMessageDialog(this,"Complete all fields.","Validation",JOptionPane.WARNING_MESSAGE); return;
+        }
+        if(desc.length() > Transaction.MAX_DESCRIPTION){
+            JOptionPane.showMessageDialog(this,"Description is too long (at most "+Transaction.MAX_DESCRIPTION+" characters).","Validation",JOptionPane.WARNING_MESSAGE); return;
+        }
+        if(canonicalize(debitRaw).equals(canonicalize(creditRaw))){
+            JOptionPane.showMessageDialog(this,"Debit and Credit cannot be the same.","Validation",JOptionPane.WARNING_MESSAGE); return;
+        }
+        LocalDate day;
+        try { day = LocalDate.parse(date, DATE_FMT); }
+        catch(Exception ex){ JOptionPane.showMessageDialog(this,"Invalid date format. Use YYYY-MM-DD.","Validation",JOptionPane.WARNING_MESSAGE); return; }
+        // before any account is opened: engine.post() would refuse it only after that
+        if(day.toEpochDay() <= engine.closedThrough()){
+            String through = DATE_FMT.format(LocalDate.ofEpochDay(engine.closedThrough()));
+            JOptionPane.showMessageDialog(this,"The books are closed through "+through+". Date the entry after that.","Validation",JOptionPane.WARNING_MESSAGE); return;
+        }
+
+        // canonical names (strip any [TYPE] token)
+        String debit = canonicalize(debitRaw);
+        String credit = canonicalize(creditRaw);
+
+        Transaction tx = new Transaction(date, desc, debit, credit, amount);
+        long seq;
+        try {
+            // ensure accounts exist; hybrid type detection uses raw for bracket if present
+            ensureAccountExistsWithHybridType(debitRaw);  // will canonicalize inside as needed
+            ensureAccountExistsWithHybridType(creditRaw);
+            seq = engine.post(tx); // O(1) delta on the two affected balances
+        } catch(UncheckedIOException | IllegalStateException | IllegalArgumentException ex){
+            // the log has failed or is closed, or the entry was refused: it was not posted
+            refreshAllViews(); // an account may have been opened first
+            JOptionPane.showMessageDialog(this,"Could not post the transaction: "+ex.getMessage(),"Validation",JOptionPane.WARNING_MESSAGE); return;
+        }
+
+        // refresh models: transaction/journal views only get a rows-inserted event for the new entry
+        int pos = transactions.size() - 1;
+        views.transactionsAppended(pos, pos);
+
+        refreshAllViews();
+        awaitLogged(seq, "Validation"); // posted either way: the form is reset so it is not posted twice
+
+        // reset form
+        descField.setText("");
+        amountField.setValue(0.0);
+        dateField.setText(DATE_FMT.format(LocalDate.now()));
+    }
+
+    static String canonicalize(String raw){
+        if(raw == null) return "";
+        String r = raw.trim();
+        int idx = r.indexOf('[');
+        if(idx >= 0) r = r.substring(0, idx).trim();
+        return r;
+    }
+
+    private void ensureAccountExistsWithHybridType(String rawName){
+        engine.ensureAccount(rawName); // rules live in PostingEngine.ensureAccount; accountNames hears of a new account
+    }
+
+    static AccountType detectTypeFromBracket(String s){
+        return AccountClassifier.brackets().classify(s);
+    }
+
+    static AccountType detectTypeByKeyword(String name){
+        return AccountClassifier.keywords().classify(name); // built-in keywords, after any -Daccounting.rules
+    }
+
+    // explicit rebuild; normal posting never replays the book. The replay runs on a worker over
+    // the entries posted so far (after the latest checkpoint); done() catches it up and
+    // installs it on the EDT
+    private void onReverifyBalances(JButton trigger){
+        int size = transactions.size();
+        trigger.setEnabled(false);
+        storeScans++;
+        new SwingWorker<PostingEngine.Replay, Void>(){
+            @Override protected PostingEngine.Replay doInBackground(){
+                return engine.replay(size);
+            }
+            @Override protected void done(){
+                trigger.setEnabled(true);
+                storeScans--;
+                PostingEngine.Replay replay;
+                int drifted;
+                try { replay = get(); drifted = engine.adopt(replay); }
+                catch(Exception ex){
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(AccountingSystem3_fixed.this,"Re-verify failed: "+cause.getMessage(),"Re-verify",JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                views.invalidate(); // adopt() may have rebuilt any balance
+                refreshAllViews();
+                String against = replay.fromCheckpoint()
+                        ? "the latest checkpoint and the "+(transactions.size()-replay.from())+" transactions after it"
+                        : transactions.size()+" transactions";
+                String msg = drifted == 0 ? "All balances verified against "+against+"."
+                                          : drifted+" account balance(s) were out of date and have been rebuilt.";
+                JOptionPane.showMessageDialog(AccountingSystem3_fixed.this, msg, "Re-verify", drifted == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+            }
+        }.execute();
+    }
+
+    // ---------------------- Transactions Tab ----------------
+    private JComponent createTransactionsPanel(){
+        JPanel p = new JPanel(new BorderLayout());
+        transTable = new JTable(transModel);
+        configureMoney(transTable, 4);
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.setBackground(softBlue);
+        JButton importCsv = new JButton("Import CSV...");
+        importCsv.setBackground(accentBlue); importCsv.setForeground(white);
+        importCsv.addActionListener(e -> onImportCsv(importCsv));
+        top.add(importCsv);
+        JButton pasteBatch = new JButton("Post Batch...");
+        pasteBatch.setBackground(accentBlue); pasteBatch.setForeground(white);
+        pasteBatch.addActionListener(e -> onPostBatch());
+        top.add(pasteBatch);
+
+        p.add(top, BorderLayout.NORTH);
+        p.add(new JScrollPane(transTable), BorderLayout.CENTER);
+        return p;
+    }
+
+    // parse/validate off the EDT, then post the whole file as one batch with one refresh
+    private void onImportCsv(JButton trigger){
+        JFileChooser fc = new JFileChooser();
+        fc.setDialogTitle("Import transactions (date, description, debit, credit, amount)");
+        fc.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        if(fc.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = fc.getSelectedFile().toPath();
+        int closedThrough = engine.closedThrough();
+
+        trigger.setEnabled(false);
+        new SwingWorker<CsvImporter.Batch, Void>(){
+            @Override protected CsvImporter.Batch doInBackground() throws Exception {
+                return CsvImporter.read(file, closedThrough);
+            }
+            @Override protected void done(){
+                trigger.setEnabled(true);
+                CsvImporter.Batch batch;
+                try { batch = get(); }
+                catch(Exception ex){
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(AccountingSystem3_fixed.this,"Import failed: "+cause.getMessage(),"Import",JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                try { if(!postBatch(batch, "Import")) return; }
+                catch(PostingEngine.BatchRejected ex){
+                    JOptionPane.showMessageDialog(AccountingSystem3_fixed.this,"Import failed: "+ex.getMessage(),"Import",JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                showImportReport(batch);
+            }
+        }.execute();
+    }
+
+    // pasted entries, one per line; any bad line and nothing is posted (the text stays for fixing)
+    private void onPostBatch(){
+        JTextArea area = new JTextArea(15, 70);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        Object[] fields = {"One entry per line: date, description, debit, credit, amount", new JScrollPane(area)};
+        while(true){
+            int res = JOptionPane.showConfirmDialog(this, fields, "Post Batch", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            if(res != JOptionPane.OK_OPTION) return;
+            CsvImporter.Batch batch = CsvImporter.parse(Arrays.asList(area.getText().split("\\R")), engine.closedThrough());
+            if(batch.rejectedCount == 0 && batch.size() == 0) return;
+            if(batch.rejectedCount == 0){
+                try {
+                    if(postBatch(batch, "Post Batch")){
+                        JOptionPane.showMessageDialog(this, "Posted "+batch.size()+" entries.", "Post Batch", JOptionPane.INFORMATION_MESSAGE);
+                    }
+                    return;
+                } catch(PostingEngine.BatchRejected ex){
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Post Batch", JOptionPane.WARNING_MESSAGE);
+                    continue;
+                }
+            }
+            StringBuilder sb = new StringBuilder("Nothing was posted; fix these lines:");
+            int shown = Math.min(20, batch.rejected.size());
+            for(int i = 0; i < shown; i++) sb.append("\n  ").append(batch.rejected.get(i));
+            if(batch.rejectedCount > shown) sb.append("\n  ... and ").append(batch.rejectedCount - shown).append(" more");
+            JOptionPane.showMessageDialog(this, sb.toString(), "Post Batch", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // one atomic post for the whole batch, then one rows-inserted event and one view refresh;
+    // false, once the user is told, if the log refused the batch or could not write it
+    private boolean postBatch(CsvImporter.Batch batch, String title){
+        int first = transactions.size();
+        long seq;
+        try { seq = batch.postTo(engine); }
+        catch(UncheckedIOException | IllegalStateException ex){
+            JOptionPane.showMessageDialog(this,"Nothing was posted: "+ex.getMessage(),title,JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        if(transactions.size() > first) views.transactionsAppended(first, transactions.size() - 1);
+        refreshAllViews();
+        return awaitLogged(seq, title);
+    }
+
+    /**
+     * Waits until the log has written record {@code seq}, and forced it under
+     * FsyncPolicy.ALWAYS, so what the window reports as posted is as durable as an ingested
+     * entry. Says so and returns false if the log could not write it.
+     */
+    private boolean awaitLogged(long seq, String title){
+        TransactionLog log = engine.log();
+        if(log == null || seq <= 0) return true;
+        try {
+            log.awaitWritten(seq);
+            return true;
+        } catch(IOException ex){
+            JOptionPane.showMessageDialog(this,"Posted, but the transaction log could not write it: "+ex.getMessage(),title,JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+    }
+
+    private void showImportReport(CsvImporter.Batch batch){
+        StringBuilder sb = new StringBuilder(batch.summary());
+        int shown = Math.min(20, batch.rejected.size());
+        if(shown > 0) sb.append("\n\nRejected rows:");
+        for(int i = 0; i < shown; i++) sb.append("\n  ").append(batch.rejected.get(i));
+        if(batch.rejectedCount > shown) sb.append("\n  ... and ").append(batch.rejectedCount - shown).append(" more");
+        JOptionPane.showMessageDialog(this, sb.toString(), "Import", batch.rejectedCount == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+    }
+
+    // --------------------- Accounts Tab ----------------
+    private JComponent createAccountsPanel(){
+        JPanel p = new JPanel(new BorderLayout());
+        p.setBackground(softBlue);
+
+        accTable = new JTable(accModel);
+        configureMoney(accTable, 2);
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.setBackground(softBlue);
+
+        JButton addAcct = new JButton("Add Account");
+        addAcct.setBackground(accentBlue); addAcct.setForeground(white);
+        addAcct.addActionListener(e -> onAddAccountManually());
+        top.add(addAcct);
+
+        JButton removeAcct = new JButton("Remove Selected Account");
+        removeAcct.setBackground(new Color(180,50,50)); removeAcct.setForeground(white);
+        removeAcct.addActionListener(e -> onRemoveAccount());
+        top.add(removeAcct);
+
+        JButton reverify = new JButton("Re-verify Balances");
+        reverify.setBackground(accentBlue); reverify.setForeground(white);
+        reverify.addActionListener(e -> onReverifyBalances(reverify));
+        top.add(reverify);
+
+        JButton closePeriod = new JButton("Close Period...");
+        closePeriod.setBackground(accentBlue); closePeriod.setForeground(white);
+        closePeriod.addActionListener(e -> onClosePeriod());
+        top.add(closePeriod);
+
+        p.add(top, BorderLayout.NORTH);
+        p.add(new JScrollPane(accTable), BorderLayout.CENTER);
+        return p;
+    }
+
+    private void onAddAccountManually(){
+        JTextField name = new JTextField();
+        JComboBox<AccountType> typeBox = new JComboBox<>(AccountType.values());
+        Object[] fields = {"Account name:", name, "Account type:", typeBox};
+        int res = JOptionPane.showConfirmDialog(this, fields, "Add Account", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if(res == JOptionPane.OK_OPTION){
+            String raw = name.getText().trim();
+            if(raw.isEmpty()){ JOptionPane.showMessageDialog(this,"Name required.","Validation",JOptionPane.WARNING_MESSAGE); return; }
+            String canonical = canonicalize(raw);
+            if(accounts.containsKey(canonical)){ JOptionPane.showMessageDialog(this,"Account already exists.","Validation",JOptionPane.WARNING_MESSAGE); return; }
+            engine.openAccount(canonical, (AccountType) typeBox.getSelectedItem());
+            refreshAllViews();
+        }
+    }
+
+    private void onRemoveAccount(){
+        int sel = accTable.getSelectedRow();
+        if(sel < 0){ JOptionPane.showMessageDialog(this,"Select an account to remove.","Validation",JOptionPane.WARNING_MESSAGE); return; }
+        String name = (String) accModel.getValueAt(sel, 0);
+        if(engine.isActive(accounts.get(name))){
+            JOptionPane.showMessageDialog(this,"Cannot remove account used in transactions.","Validation",JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        int c = JOptionPane.showConfirmDialog(this,"Remove account '"+name+"'?","Confirm",JOptionPane.YES_NO_OPTION);
+        if(c == JOptionPane.YES_OPTION){
+            engine.removeAccount(name);
+            refreshAllViews();
+        }
+    }
+
+    // closing entries into the chosen equity account, then the closed entries go to the archive;
+    // a snapshot right after lets the next start skip the closed part of the log
+    private void onClosePeriod(){
+        if(engine.archive() == null){
+            JOptionPane.showMessageDialog(this,"Periods can only be closed in a book with a log.","Close Period",JOptionPane.WARNING_MESSAGE); return;
+        }
+        if(storeScans > 0){
+            JOptionPane.showMessageDialog(this,"Wait for the running report or re-verify to finish.","Close Period",JOptionPane.WARNING_MESSAGE); return;
+        }
+        List<String> equity = new ArrayList<>();
+        for(Account a : accounts.values()) if(a.type == AccountType.EQUITY) equity.add(a.name);
+        if(equity.isEmpty()){
+            JOptionPane.showMessageDialog(this,"Add an equity account (e.g. Retained Earnings) first.","Close Period",JOptionPane.WARNING_MESSAGE); return;
+        }
+        JTextField through = new JTextField(LocalDate.now().withDayOfMonth(1).minusDays(1).format(DATE_FMT));
+        JComboBox<String> into = new JComboBox<>(equity.toArray(new String[0]));
+        if(equity.contains("Retained Earnings")) into.setSelectedItem("Retained Earnings");
+        Object[] fields = {"Close through (YYYY-MM-DD):", through, "Close revenue and expense into:", into,
+                "Entries dated through this day can no longer be posted."};
+        int res = JOptionPane.showConfirmDialog(this, fields, "Close Period", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if(res != JOptionPane.OK_OPTION) return;
+        int day;
+        try { day = epochDayOf(through.getText().trim()); }
+        catch(Exception ex){
+            JOptionPane.showMessageDialog(this,"Invalid date format. Use YYYY-MM-DD.","Validation",JOptionPane.WARNING_MESSAGE); return;
+        }
+        PostingEngine.PeriodClose done;
+        try { done = engine.closePeriod(day, (String) into.getSelectedItem()); }
+        catch(IOException | RuntimeException ex){
+            views.invalidate(); // closing entries may stand even if the archive could not be written
+            refreshAllViews();
+            JOptionPane.showMessageDialog(this,"Could not close the period: "+ex.getMessage(),"Close Period",JOptionPane.ERROR_MESSAGE); return;
+        }
+        views.bookCompacted();
+        refreshAllViews();
+        String sel = ledgerList.getSelectedValue();
+        if(sel != null) showLedgerFor(extractName(sel));
+        String msg = "Closed through "+LocalDate.ofEpochDay(done.throughDay).format(DATE_FMT)+": "
+                + done.closingEntries+" closing entr"+(done.closingEntries == 1 ? "y" : "ies")+", "
+                + done.archived+" entries archived.";
+        TransactionLog log = engine.log();
+        if(log != null){
+            try { saveSnapshot(log); }
+            catch(IOException ex){ msg += "\nThe snapshot could not be saved ("+ex.getMessage()+"); the log still has everything."; }
+        }
+        JOptionPane.showMessageDialog(this, msg, "Close Period", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // ---------------------- Journal Tab ----------------
+    private JComponent createJournalPanel(){
+        JPanel p = new JPanel(new BorderLayout());
+        journalTable = new JTable(journalModel);
+        configureMoney(journalTable, 3);
+        configureMoney(journalTable, 4);
+        p.add(new JScrollPane(journalTable), BorderLayout.CENTER);
+        return p;
+    }
+
+    // ---------------------- Ledger Tab ----------------
+    private JComponent createLedgerPanel(){
+        JPanel p = new JPanel(new BorderLayout());
+        p.setBackground(softBlue);
+
+        ledgerList = new JList<>(views.ledgerListModel);
+        ledgerList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        ledgerList.setFixedCellWidth(360);
+        ledgerList.addListSelectionListener(e -> {
+            if(!e.getValueIsAdjusting()){
+                String sel = ledgerList.getSelectedValue();
+                if(sel != null) {
+                    String name = extractName(sel);
+                    showLedgerFor(name);
+                }
+            }
+        });
+
+        ledgerTable = new JTable(ledgerModel);
+        configureMoney(ledgerTable, 2);
+        configureMoney(ledgerTable, 3);
+        configureMoney(ledgerTable, 4);
+
+        // period filter
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.setBackground(softBlue);
+        ledgerFrom = new JTextField(10);
+        ledgerTo = new JTextField(10);
+        JButton apply = new JButton("Show Period");
+        apply.setBackground(accentBlue); apply.setForeground(white);
+        apply.addActionListener(e -> {
+            String sel = ledgerList.getSelectedValue();
+            if(sel != null) showLedgerFor(extractName(sel));
+        });
+        top.add(new JLabel("From (YYYY-MM-DD):")); top.add(ledgerFrom);
+        top.add(new JLabel("To:")); top.add(ledgerTo);
+        top.add(apply);
+
+        p.add(top, BorderLayout.NORTH);
+        p.add(new JScrollPane(ledgerList), BorderLayout.WEST);
+        p.add(new JScrollPane(ledgerTable), BorderLayout.CENTER);
+        return p;
+    }
+
+    private String extractName(String rich){
+        int idx = rich.indexOf(" (");
+        return idx>0? rich.substring(0, idx) : rich;
+    }
+
+    private void showLedgerFor(String accountName){
+        int from, to;
+        try {
+            from = periodDay(ledgerFrom, Integer.MIN_VALUE);
+            to = periodDay(ledgerTo, Integer.MAX_VALUE);
+        } catch(Exception ex){
+            JOptionPane.showMessageDialog(this,"Invalid date format. Use YYYY-MM-DD.","Validation",JOptionPane.WARNING_MESSAGE); return;
+        }
+        views.showLedgerFor(accountName, from, to);
+    }
+
+    private static int periodDay(JTextField field, int open){
+        String text = field == null ? "" : field.getText().trim();
+        return text.isEmpty() ? open : epochDayOf(text);
+    }
+
+    // ---------------------- Balance Sheet ----------------
+    private JComponent createBalancePanel(){
+        JPanel p = new JPanel(new BorderLayout());
+        p.setBackground(softBlue);
+        p.setBorder(new EmptyBorder(8,8,8,8));
+
+        assetsTable = new JTable(assetsModel); leTable = new JTable(leModel);
+        configureMoney(assetsTable,1); configureMoney(leTable,1);
+
+        JPanel columns = new JPanel(new GridLayout(1,2,12,0));
+        JPanel left = new JPanel(new BorderLayout()); left.add(new JLabel("Assets", SwingConstants.LEFT), BorderLayout.NORTH); left.add(new JScrollPane(assetsTable), BorderLayout.CENTER);
+        JPanel right = new JPanel(new BorderLayout()); right.add(new JLabel("Liabilities & Equity", SwingConstants.LEFT), BorderLayout.NORTH); right.add(new JScrollPane(leTable), BorderLayout.CENTER);
+        columns.add(left); columns.add(right);
+
+        // "as of" date selector
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.setBackground(softBlue);
+        balanceAsOf = new JTextField(10);
+        balanceAsOf.addActionListener(e -> onBalanceAsOf());
+        JButton show = new JButton("Show");
+        show.setBackground(accentBlue); show.setForeground(white);
+        show.addActionListener(e -> onBalanceAsOf());
+        JButton latest = new JButton("Current");
+        latest.addActionListener(e -> { balanceAsOf.setText(""); onBalanceAsOf(); });
+        top.add(new JLabel("As of (YYYY-MM-DD):")); top.add(balanceAsOf); top.add(show); top.add(latest);
+
+        p.add(top, BorderLayout.NORTH);
+        p.add(columns, BorderLayout.CENTER);
+        return p;
+    }
+
+    private void onBalanceAsOf(){
+        int day;
+        try { day = periodDay(balanceAsOf, Integer.MAX_VALUE); }
+        catch(Exception ex){ JOptionPane.showMessageDialog(this,"Invalid date format. Use YYYY-MM-DD.","Validation",JOptionPane.WARNING_MESSAGE); return; }
+        views.showBalanceSheetAsOf(day);
+    }
+
+    // ---------------------- Reports ----------------
+    private JComponent createReportsPanel(){
+        JPanel p = new JPanel(new BorderLayout());
+        p.setBackground(softBlue);
+        p.setBorder(new EmptyBorder(8,8,8,8));
+
+        reportText = new JTextArea();
+        reportText.setEditable(false);
+        reportText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.setBackground(softBlue);
+        reportFrom = new JTextField(10);
+        reportTo = new JTextField(10);
+        JButton run = new JButton("Run Reports");
+        run.setBackground(accentBlue); run.setForeground(white);
+        run.addActionListener(e -> onRunReports(run));
+        top.add(new JLabel("From (YYYY-MM-DD):")); top.add(reportFrom);
+        top.add(new JLabel("To:")); top.add(reportTo);
+        top.add(run);
+
+        p.add(top, BorderLayout.NORTH);
+        p.add(new JScrollPane(reportText), BorderLayout.CENTER);
+        return p;
+    }
+
+    // scan on the fork/join pool from a worker; the account list and store size are fixed here on the EDT
+    private void onRunReports(JButton trigger){
+        int from, to;
+        try {
+            from = periodDay(reportFrom, Integer.MIN_VALUE);
+            to = periodDay(reportTo, Integer.MAX_VALUE);
+        } catch(Exception ex){
+            JOptionPane.showMessageDialog(this,"Invalid date format. Use YYYY-MM-DD.","Validation",JOptionPane.WARNING_MESSAGE); return;
+        }
+        TransactionStore store = engine.store();
+        int size = store.size();
+        List<Account> accountList = new ArrayList<>(accounts.values());
+        PostingEngine.Opening closed = engine.opening();
+
+        trigger.setEnabled(false);
+        reportText.setText("Running...");
+        storeScans++;
+        new SwingWorker<ReportEngine.Reports, Void>(){
+            @Override protected ReportEngine.Reports doInBackground(){
+                return reports.run(store, size, accountList, closed, from, to);
+            }
+            @Override protected void done(){
+                trigger.setEnabled(true);
+                storeScans--;
+                try { reportText.setText(ReportEngine.format(get(), store)); }
+                catch(Exception ex){
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    reportText.setText("Reports failed: " + cause);
+                }
+                reportText.setCaretPosition(0);
+            }
+        }.execute();
+    }
+
+    // -------------------- Utilities ----------------
+    // money cells hold Long centavos; the shared renderer formats the visible ones
+    private void configureMoney(JTable t, int col){
+        if(t.getColumnModel().getColumnCount() > col){
+            t.getColumnModel().getColumn(col).setCellRenderer(moneyRenderer);
+        }
+    }
+
+    /** Schedules a refresh of the per-account views; bursts of posts share one. */
+    private void refreshAllViews(){
+        viewRefresh.request();
+    }
+
+    private void rebuildViews(){
+        views.refresh(); // the rows of the accounts posted to; the account combos follow accountNames
+    }
+
+    // ---------------- Main ----------------------
+    public static void main(String[] args){
+        SwingUtilities.invokeLater(() -> {
+            AccountingSystem3_fixed app = new AccountingSystem3_fixed();
+            app.setVisible(true);
+        });
+    }
+}
+
@@ -0,0 +1,125 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * BalanceCheckpoint
+ *
+ * The balances of a PostingEngine book at one point of its TransactionLog: every open
+ * account's debit/credit totals and type (its balance follows from them), the per-type
+ * totals, how many entries the store held, and the log offset just past the last record
+ * they include. Taken every few minutes while the book is open, so startup and re-verify
+ * only have to replay what came after it. Layout (big-endian):
+ *
+ *   int magic, int version, long logPosition, int entries
+ *   int accountCount, accountCount x {string name, byte type, long debitTotal, long creditTotal}
+ *   int typeCount, typeCount x long typeTotal
+ *   int crc32 of everything before it
+ *
+ * A string is DataOutput.writeUTF. Written like a BookSnapshot (temp file, forced, renamed
+ * over the old one); a missing, damaged or self-contradictory file reads as no checkpoint.
+ */
+final class BalanceCheckpoint {
+
+    private static final int MAGIC = 0x4143434B; // "ACCK"
+    private static final int VERSION = 1;
+
+    final long logPosition; // -1 for a book without a log
+    final int entries;      // store size the totals cover
+    final String[] names;
+    final AccountingSystem3_fixed.AccountType[] types;
+    final long[] debits, credits;
+    final long[] typeTotals; // by AccountType ordinal
+
+    BalanceCheckpoint(long logPosition, int entries, String[] names, AccountingSystem3_fixed.AccountType[] types,
+                      long[] debits, long[] credits, long[] typeTotals){
+        this.logPosition = logPosition;
+        this.entries = entries;
+        this.names = names;
+        this.types = types;
+        this.debits = debits;
+        this.credits = credits;
+        this.typeTotals = typeTotals;
+    }
+
+    int accounts(){ return names.length; }
+
+    long balance(int i){ return PostingEngine.balanceOf(types[i], debits[i], credits[i]); }
+
+    /** True if the per-type totals are the sums of the account balances. */
+    boolean consistent(){
+        long[] sums = new long[typeTotals.length];
+        for(int i = 0; i < names.length; i++) sums[types[i].ordinal()] += balance(i);
+        return Arrays.equals(sums, typeTotals);
+    }
+
+    // ---------------------- Write ----------------
+    static void write(BalanceCheckpoint cp, Path path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 48 * cp.names.length);
+        try(DataOutputStream out = new DataOutputStream(bytes)){
+            out.writeInt(MAGIC); out.writeInt(VERSION);
+            out.writeLong(cp.logPosition); out.writeInt(cp.entries);
+            out.writeInt(cp.names.length);
+            for(int i = 0; i < cp.names.length; i++){
+                out.writeUTF(cp.names[i]); out.writeByte(cp.types[i].ordinal());
+                out.writeLong(cp.debits[i]); out.writeLong(cp.credits[i]);
+            }
+            out.writeInt(cp.typeTotals.length);
+            for(long t : cp.typeTotals) out.writeLong(t);
+        }
+        byte[] body = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer buf = ByteBuffer.allocate(body.length + 4);
+        buf.put(body).putInt((int) crc.getValue()).flip();
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try(FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while(buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(AtomicMoveNotSupportedException ex){
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ---------------------- Read ----------------
+    /** The checkpoint at {@code path}, or null if there is none or it cannot be trusted. */
+    static BalanceCheckpoint read(Path path) throws IOException {
+        if(!Files.isRegularFile(path) || Files.size(path) < 28) return null;
+        byte[] b = Files.readAllBytes(path);
+        CRC32 crc = new CRC32();
+        crc.update(b, 0, b.length - 4);
+        if((int) crc.getValue() != ByteBuffer.wrap(b, b.length - 4, 4).getInt()) return null;
+        try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(b, 0, b.length - 4))){
+            if(in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            long logPosition = in.readLong();
+            int entries = in.readInt();
+            int n = in.readInt();
+            AccountingSystem3_fixed.AccountType[] all = AccountingSystem3_fixed.AccountType.values();
+            String[] names = new String[n];
+            AccountingSystem3_fixed.AccountType[] types = new AccountingSystem3_fixed.AccountType[n];
+            long[] debits = new long[n], credits = new long[n];
+            for(int i = 0; i < n; i++){
+                names[i] = in.readUTF();
+                int t = in.readUnsignedByte();
+                if(t >= all.length) return null;
+                types[i] = all[t];
+                debits[i] = in.readLong();
+                credits[i] = in.readLong();
+            }
+            long[] typeTotals = new long[in.readInt()];
+            if(typeTotals.length != all.length) return null;
+            for(int i = 0; i < typeTotals.length; i++) typeTotals[i] = in.readLong();
+            BalanceCheckpoint cp = new BalanceCheckpoint(logPosition, entries, names, types, debits, credits, typeTotals);
+            return cp.consistent() ? cp : null;
+        } catch(EOFException | UTFDataFormatException ex){
+            return null;
+        }
+    }
+}
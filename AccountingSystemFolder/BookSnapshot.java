@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * BookSnapshot
+ *
+ * Compact binary image of a PostingEngine book, so a large book opens without replaying
+ * the whole TransactionLog. Layout (big-endian):
+ *
+ *   int magic, int version, long logPosition (log offset the snapshot covers)
+ *   int closedThrough, long archivedEntries  -- see PostingEngine.closePeriod()
+ *   int nameCount,  nameCount  x string     -- dictionary of account names
+ *   int accountCount, accountCount x {int nameId, byte type, long debitTotal, long creditTotal}
+ *   int openingCount, openingCount x {int nameId, long debit, long credit} -- archived totals
+ *   int descCount,  descCount  x string     -- dictionary of descriptions
+ *   int txCount, then columns of txCount each:
+ *     int epochDay[], int debitId[], int creditId[], long amount[] (centavos), int descId[]
+ *
+ * A string is {int byteLength, UTF-8 bytes}. The file is written to a temp file, forced
+ * and atomically renamed over the old one; it is read through a memory-mapped channel.
+ * Version 1 files (no closed period) still load.
+ */
+final class BookSnapshot {
+
+    private static final int MAGIC = 0x4143534E; // "ACSN"
+    private static final int VERSION = 2;
+
+    private BookSnapshot(){}
+
+    // ---------------------- Write ----------------
+    static void write(PostingEngine engine, long logPosition, Path path) throws IOException {
+        Map<String, AccountingSystem3_fixed.Account> accounts = engine.accounts();
+        TransactionStore store = engine.store();
+
+        // snapshot name ids are dense and file-local; map AccountIds onto them
+        Map<String, Integer> names = new LinkedHashMap<>();
+        for(String n : accounts.keySet()) names.put(n, names.size());
+        int[] nameIdOf = new int[AccountIds.size()];
+        Arrays.fill(nameIdOf, -1);
+        int n = store.size();
+        for(int i = 0; i < n; i++){
+            nameId(names, nameIdOf, store.debitId(i));
+            nameId(names, nameIdOf, store.creditId(i));
+        }
+        List<Integer> openings = new ArrayList<>();
+        for(int id = 0; id < nameIdOf.length; id++){
+            if(engine.openingDebit(id) == 0L && engine.openingCredit(id) == 0L) continue;
+            nameId(names, nameIdOf, id);
+            openings.add(id);
+        }
+        // the store's description pool and columns go out as they are
+        List<String> descs = new ArrayList<>(store.descriptionCount());
+        for(int i = 0; i < store.descriptionCount(); i++) descs.add(store.descriptionText(i));
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try(FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            buf.putInt(MAGIC).putInt(VERSION).putLong(logPosition);
+            buf.putInt(engine.closedThrough()).putLong(engine.archivedEntries());
+
+            buf = putStrings(ch, buf, names.keySet());
+
+            buf = room(ch, buf, 4).putInt(accounts.size());
+            for(AccountingSystem3_fixed.Account a : accounts.values()){
+                room(ch, buf, 21).putInt(names.get(a.name)).put((byte) a.type.ordinal()).putLong(engine.debitTotal(a)).putLong(engine.creditTotal(a));
+            }
+
+            buf = room(ch, buf, 4).putInt(openings.size());
+            for(int id : openings){
+                room(ch, buf, 20).putInt(nameIdOf[id]).putLong(engine.openingDebit(id)).putLong(engine.openingCredit(id));
+            }
+
+            buf = putStrings(ch, buf, descs);
+
+            buf = room(ch, buf, 4).putInt(n);
+            for(int i = 0; i < n; i++) room(ch, buf, 4).putInt(store.epochDay(i));
+            for(int i = 0; i < n; i++) room(ch, buf, 4).putInt(nameIdOf[store.debitId(i)]);
+            for(int i = 0; i < n; i++) room(ch, buf, 4).putInt(nameIdOf[store.creditId(i)]);
+            for(int i = 0; i < n; i++) room(ch, buf, 8).putLong(store.amount(i));
+            for(int i = 0; i < n; i++) room(ch, buf, 4).putInt(store.descId(i));
+
+            drain(ch, buf);
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(AtomicMoveNotSupportedException ex){
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int nameId(Map<String, Integer> names, int[] nameIdOf, int accountId){
+        int id = nameIdOf[accountId];
+        if(id < 0) id = nameIdOf[accountId] = names.computeIfAbsent(AccountIds.name(accountId), k -> names.size());
+        return id;
+    }
+
+    private static ByteBuffer putStrings(FileChannel ch, ByteBuffer buf, Collection<String> strings) throws IOException {
+        room(ch, buf, 4).putInt(strings.size());
+        for(String s : strings){
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            if(b.length + 4 > buf.capacity()) buf = grow(ch, buf, b.length + 4);
+            room(ch, buf, 4 + b.length).putInt(b.length).put(b);
+        }
+        return buf;
+    }
+
+    /** Makes sure {@code bytes} fit, draining the buffer to the channel first if needed. */
+    private static ByteBuffer room(FileChannel ch, ByteBuffer buf, int bytes) throws IOException {
+        if(buf.remaining() < bytes) drain(ch, buf);
+        return buf;
+    }
+
+    private static ByteBuffer grow(FileChannel ch, ByteBuffer buf, int bytes) throws IOException {
+        drain(ch, buf);
+        return ByteBuffer.allocate(Math.max(bytes, buf.capacity() * 2));
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while(buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    // ---------------------- Read ----------------
+    /** Log offset the snapshot at {@code path} covers, or -1 if it is missing or not a snapshot. */
+    static long logPosition(Path path) throws IOException {
+        if(!Files.isRegularFile(path) || Files.size(path) < 16) return -1L;
+        try(FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)){
+            ByteBuffer head = ByteBuffer.allocate(16);
+            while(head.hasRemaining() && ch.read(head) >= 0) { }
+            head.flip();
+            if(head.getInt() != MAGIC || !known(head.getInt())) return -1L;
+            return head.getLong();
+        }
+    }
+
+    /**
+     * Loads the snapshot into an empty engine (accounts with their stored totals, then the
+     * transactions, which are not re-applied). Returns the log offset to resume replay from.
+     */
+    static long load(Path path, PostingEngine engine) throws IOException {
+        try(FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)){
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if(buf.getInt() != MAGIC) throw new IOException("Not a book snapshot: " + path);
+            int version = buf.getInt();
+            if(!known(version)) throw new IOException("Unknown book snapshot version " + version + ": " + path);
+            long logPosition = buf.getLong();
+            if(version >= 2) engine.restoreClosed(buf.getInt(), buf.getLong());
+
+            String[] names = getStrings(buf);
+            int[] accountIds = new int[names.length];
+            for(int i = 0; i < names.length; i++) accountIds[i] = AccountIds.intern(names[i]);
+            AccountingSystem3_fixed.AccountType[] types = AccountingSystem3_fixed.AccountType.values();
+            int accountCount = buf.getInt();
+            for(int i = 0; i < accountCount; i++){
+                String name = names[buf.getInt()];
+                AccountingSystem3_fixed.AccountType type = types[buf.get()];
+                engine.restoreAccount(name, type, buf.getLong(), buf.getLong());
+            }
+            int openingCount = version >= 2 ? buf.getInt() : 0;
+            for(int i = 0; i < openingCount; i++){
+                engine.restoreOpening(accountIds[buf.getInt()], buf.getLong(), buf.getLong());
+            }
+
+            String[] descs = getStrings(buf);
+
+            int n = buf.getInt();
+            int base = buf.position();
+            int debitAt = base + 4 * n, creditAt = debitAt + 4 * n, amountAt = creditAt + 4 * n, descAt = amountAt + 8 * n;
+            engine.ensureCapacity(n);
+            for(int i = 0; i < n; i++){
+                engine.restoreTransaction(buf.getInt(base + 4 * i),
+                        accountIds[buf.getInt(debitAt + 4 * i)],
+                        accountIds[buf.getInt(creditAt + 4 * i)],
+                        buf.getLong(amountAt + 8 * i),
+                        descs[buf.getInt(descAt + 4 * i)]);
+            }
+            return logPosition;
+        }
+    }
+
+    private static boolean known(int version){ return version == 1 || version == VERSION; }
+
+    private static String[] getStrings(ByteBuffer buf){
+        String[] out = new String[buf.getInt()];
+        for(int i = 0; i < out.length; i++){
+            byte[] b = new byte[buf.getInt()];
+            buf.get(b);
+            out[i] = new String(b, StandardCharsets.UTF_8);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,292 @@
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.util.*;
+import java.util.List;
+
+/**
+ * BookViews
+ *
+ * The table/list models behind AccountingSystem3_fixed's tabs, filled from a PostingEngine.
+ * Holds models only (no components), so it can be built and refreshed headless, e.g. by
+ * the benchmark harness. The frame wires these models into its JTables/JList.
+ * Money cells hold Long centavos (null when blank); a MoneyRenderer formats them on paint.
+ * refresh() rewrites only the rows of the accounts posted to since the last one; the
+ * views are rebuilt when the chart of accounts changes or balances move in bulk.
+ */
+class BookViews {
+
+    private final PostingEngine engine;
+    private final Map<String, AccountingSystem3_fixed.Account> accounts;
+    private final TransactionStore store;
+
+    final TransactionTableModel transModel;   // lazy view, no row copies
+    final JournalTableModel journalModel;     // two derived lines per transaction
+    final DefaultTableModel accModel = readOnly(2, "Account","Type","Balance");
+    final Ledger ledgerModel;                 // windowed, see LedgerTableModel
+    final DefaultTableModel assetsModel = readOnly(1, "Asset","Amount");
+    final DefaultTableModel leModel = readOnly(1, "Liabilities & Equity","Amount");
+    final DefaultListModel<String> ledgerListModel = new DefaultListModel<>(); // rich titles
+    private int balanceSheetAsOf = Integer.MAX_VALUE; // epoch day, MAX_VALUE = current balances
+
+    // where each account is shown, so a refresh after a few posts rewrites those rows only
+    private final List<AccountingSystem3_fixed.Account> rows = new ArrayList<>(); // accModel/ledgerListModel order
+    private int[] rowById = new int[0];       // -1: not shown
+    private int[] sheetRowById = new int[0];  // row in assetsModel or leModel, -1: not on the sheet
+    private long sheetAssets, sheetLE;        // the sheet's totals as shown
+    private final BitSet touched = new BitSet(); // accounts posted to since the last refresh
+    private volatile boolean stale = true;    // rebuild on the next refresh; set from any thread
+
+    BookViews(PostingEngine engine){
+        this.engine = engine;
+        this.accounts = engine.accounts();
+        this.store = engine.store();
+        this.transModel = new TransactionTableModel(store);
+        this.journalModel = new JournalTableModel(store);
+        this.ledgerModel = new Ledger(store);
+        engine.addAccountListener(new PostingEngine.AccountListener(){
+            @Override public void accountOpened(AccountingSystem3_fixed.Account a){ stale = true; }
+            @Override public void accountRemoved(AccountingSystem3_fixed.Account a){ stale = true; }
+            @Override public void accountRetyped(AccountingSystem3_fixed.Account a){ stale = true; }
+        });
+    }
+
+    // columns from firstMoney on hold Long centavos
+    private static DefaultTableModel readOnly(int firstMoney, String... columns){
+        return new DefaultTableModel(columns, 0){
+            @Override public boolean isCellEditable(int r,int c){ return false; }
+            @Override public Class<?> getColumnClass(int c){ return c >= firstMoney ? Long.class : String.class; }
+        };
+    }
+
+    /**
+     * Transactions [first, last] were appended to the engine: insert their rows only, and
+     * note their accounts for refresh(). A batch longer than the chart just rebuilds.
+     */
+    void transactionsAppended(int first, int last){
+        transModel.fireTransactionsAppended(first, last);
+        journalModel.fireTransactionsAppended(first, last);
+        if(last - first >= accounts.size()){ stale = true; return; }
+        for(int pos = first; pos <= last; pos++){
+            touched.set(store.debitId(pos));
+            touched.set(store.creditId(pos));
+        }
+    }
+
+    /** Balances moved in bulk (re-verify, a period close): the next refresh() rebuilds. */
+    void invalidate(){ stale = true; }
+
+    /**
+     * A period close dropped entries from the store: the transaction and journal tables
+     * start over on what is left, and the ledger (whose positions are stale) is cleared.
+     */
+    void bookCompacted(){
+        invalidate();
+        transModel.fireTableDataChanged();
+        journalModel.fireTableDataChanged();
+        ledgerModel.clear();
+    }
+
+    /**
+     * Brings the per-account views up to date. Only the accounts posted to since the last call
+     * (see transactionsAppended) have their accounts-table row, ledger-list title and balance
+     * sheet row rewritten, and the sheet totals reset: O(accounts posted to). Everything is
+     * rebuilt instead after a chart change or invalidate(); the balance sheet alone when a
+     * posted account first shows on it.
+     */
+    void refresh(){
+        if(stale){ refreshAll(); return; }
+        boolean current = balanceSheetAsOf == Integer.MAX_VALUE, sheetChanged = false;
+        for(int id = touched.nextSetBit(0); id >= 0; id = touched.nextSetBit(id + 1)){
+            int row = id < rowById.length ? rowById[id] : -1;
+            if(row < 0) continue; // posted to a closed or unknown account: nothing shows it
+            AccountingSystem3_fixed.Account a = rows.get(row);
+            long balance = engine.balance(a);
+            accModel.setValueAt(balance, row, 2);
+            ledgerListModel.set(row, title(a, balance));
+
+            long shown = current ? balance : engine.balanceAsOf(a, balanceSheetAsOf);
+            int sheetRow = sheetRowById[id];
+            if(sheetRow >= 0){
+                DefaultTableModel side = a.type == AccountingSystem3_fixed.AccountType.ASSET ? assetsModel : leModel;
+                long delta = shown - (Long) side.getValueAt(sheetRow, 1);
+                side.setValueAt(shown, sheetRow, 1);
+                if(side == assetsModel) sheetAssets += delta; else sheetLE += delta;
+            } else if(onSheet(a.type) && (shown != 0L || (current ? engine.isActive(a) : engine.isActiveBy(a, balanceSheetAsOf)))){
+                sheetChanged = true;
+            }
+        }
+        touched.clear();
+        if(sheetChanged) refreshBalanceSheet();
+        else showSheetTotals();
+    }
+
+    /** Rebuilds the per-account views (accounts table, ledger list, balance sheet). */
+    void refreshAll(){
+        stale = false;
+        touched.clear();
+        rows.clear();
+        rows.addAll(accounts.values());
+        int ids = 0;
+        for(AccountingSystem3_fixed.Account a : rows) ids = Math.max(ids, a.id + 1);
+        rowById = new int[ids];
+        Arrays.fill(rowById, -1);
+
+        // accounts table
+        accModel.setRowCount(0);
+        for(int r = 0; r < rows.size(); r++){
+            AccountingSystem3_fixed.Account a = rows.get(r);
+            rowById[a.id] = r;
+            accModel.addRow(new Object[]{a.name, a.type.name(), engine.balance(a)});
+        }
+
+        // ledger list (rich titles)
+        List<String> titles = new ArrayList<>(rows.size());
+        for(AccountingSystem3_fixed.Account a : rows) titles.add(title(a, engine.balance(a)));
+        ledgerListModel.clear();
+        ledgerListModel.addAll(titles);
+
+        // transactions & journal tables read the transaction list lazily and are told about
+        // new rows when they are posted, so they are not rebuilt here
+
+        refreshBalanceSheet();
+    }
+
+    /** Shows the balance sheet as of the end of {@code day} (Integer.MAX_VALUE for current balances). */
+    void showBalanceSheetAsOf(int day){
+        balanceSheetAsOf = day;
+        refreshBalanceSheet();
+    }
+
+    /**
+     * Balance sheet: accounts with postings or a non-zero balance. Current totals come from
+     * the engine's aggregates; a past date asks each account's DailyTotals, O(log days) each.
+     */
+    void refreshBalanceSheet(){
+        boolean current = balanceSheetAsOf == Integer.MAX_VALUE;
+        assetsModel.setRowCount(0); leModel.setRowCount(0);
+        sheetRowById = new int[rowById.length];
+        Arrays.fill(sheetRowById, -1);
+        sheetAssets = 0L; sheetLE = 0L;
+        for(AccountingSystem3_fixed.Account a : rows){
+            if(!onSheet(a.type)) continue;
+            long balance = current ? engine.balance(a) : engine.balanceAsOf(a, balanceSheetAsOf);
+            boolean active = current ? engine.isActive(a) : engine.isActiveBy(a, balanceSheetAsOf);
+            if(!active && balance == 0L) continue;
+            if(a.type == AccountingSystem3_fixed.AccountType.ASSET){
+                sheetRowById[a.id] = assetsModel.getRowCount();
+                assetsModel.addRow(new Object[]{a.name, balance});
+                sheetAssets += balance;
+            } else {
+                sheetRowById[a.id] = leModel.getRowCount();
+                leModel.addRow(new Object[]{a.name, balance});
+                sheetLE += balance;
+            }
+        }
+        assetsModel.addRow(new Object[]{"", null});
+        assetsModel.addRow(new Object[]{"Total Assets", 0L});
+        leModel.addRow(new Object[]{"", null});
+        leModel.addRow(new Object[]{"Total Liabilities & Equity", 0L});
+        showSheetTotals();
+    }
+
+    // the last row of each side; current totals come from the engine's per-type aggregates
+    private void showSheetTotals(){
+        boolean current = balanceSheetAsOf == Integer.MAX_VALUE;
+        long totalAssets = current ? engine.typeTotal(AccountingSystem3_fixed.AccountType.ASSET) : sheetAssets;
+        long totalLE = current ? engine.typeTotal(AccountingSystem3_fixed.AccountType.LIABILITY)
+                + engine.typeTotal(AccountingSystem3_fixed.AccountType.EQUITY) : sheetLE;
+        assetsModel.setValueAt(totalAssets, assetsModel.getRowCount() - 1, 1);
+        leModel.setValueAt(totalLE, leModel.getRowCount() - 1, 1);
+    }
+
+    private static boolean onSheet(AccountingSystem3_fixed.AccountType type){
+        return type == AccountingSystem3_fixed.AccountType.ASSET || type == AccountingSystem3_fixed.AccountType.LIABILITY
+                || type == AccountingSystem3_fixed.AccountType.EQUITY;
+    }
+
+    private static String title(AccountingSystem3_fixed.Account a, long balance){
+        return String.format("%s (%s) — %s", a.name, a.type.name(), Money.format(balance));
+    }
+
+    /** Shows one account's postings and running balance in ledgerModel. */
+    void showLedgerFor(String accountName){
+        showLedgerFor(accountName, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same, limited to entries dated within [fromDay, toDay] (epoch days, inclusive), in date
+     * order. A bounded period starts with an opening-balance row carried from before it.
+     * Only the entries' positions are copied here; rows are made as they are scrolled to.
+     * After a period close an open-ended ledger starts at the carried-over opening balance;
+     * a period reaching into the closed ones pages that account's entries in from the archive.
+     */
+    void showLedgerFor(String accountName, int fromDay, int toDay){
+        AccountingSystem3_fixed.Account acc = accountName == null ? null : accounts.get(accountName);
+        if(acc == null){ ledgerModel.clear(); return; }
+        // positions, opening balance and closing date taken together, with posting paused
+        long[] opening = new long[1];
+        int[] closed = new int[1];
+        int[] positions = engine.query(() -> {
+            PostingEngine.Postings postings = engine.postingsOf(acc.id);
+            int[] range = engine.range(postings, fromDay, toDay);
+            closed[0] = engine.closedThrough();
+            if(fromDay != Integer.MIN_VALUE) opening[0] = engine.balanceAsOf(acc, fromDay - 1);
+            else if(toDay > closed[0]) opening[0] = engine.openingBalance(acc);
+            return postings.copy(range[0], range[1]);
+        });
+        int through = closed[0];
+        String openingDate = fromDay != Integer.MIN_VALUE ? store.dateText(fromDay) : null;
+        TransactionStore archived = Ledger.NONE;
+        if(through != Integer.MIN_VALUE){
+            if(fromDay == Integer.MIN_VALUE && toDay > through) openingDate = store.dateText(through + 1);
+            else if(fromDay <= through) archived = engine.archivedPostings(acc.id, fromDay, toDay);
+        }
+        ledgerModel.show(acc.id, acc.type, archived, positions, openingDate, opening[0]);
+    }
+
+    /**
+     * The General Ledger tab's model: a snapshot of one account's entry positions, windowed,
+     * after any of its archived entries paged in for the period (all of which come first).
+     */
+    static final class Ledger extends LedgerTableModel {
+        static final TransactionStore NONE = new TransactionStore();
+
+        private final TransactionStore store;
+        private int account = -1;
+        private AccountingSystem3_fixed.AccountType type = AccountingSystem3_fixed.AccountType.UNKNOWN;
+        private TransactionStore archived = NONE; // every entry names the account
+        private int[] positions = new int[0];
+
+        Ledger(TransactionStore store){ this.store = store; }
+
+        void show(int account, AccountingSystem3_fixed.AccountType type, TransactionStore archived, int[] positions,
+                  String openingDate, long opening){
+            this.account = account;
+            this.type = type;
+            this.archived = archived;
+            this.positions = positions;
+            reset(openingDate, opening);
+        }
+
+        void clear(){ show(-1, AccountingSystem3_fixed.AccountType.UNKNOWN, NONE, new int[0], null, 0L); }
+
+        private TransactionStore storeOf(int k){ return k < archived.size() ? archived : store; }
+        private int at(int k){ return k < archived.size() ? k : positions[k - archived.size()]; }
+
+        @Override int postings(){ return archived.size() + positions.length; }
+        @Override String date(int k){ return storeOf(k).date(at(k)); }
+        @Override String description(int k){ return storeOf(k).description(at(k)); }
+        @Override boolean isDebit(int k){ return storeOf(k).debitId(at(k)) == account; }
+        @Override long amount(int k){ return storeOf(k).amount(at(k)); }
+
+        @Override long delta(int k){
+            TransactionStore s = storeOf(k);
+            int pos = at(k);
+            long amt = s.amount(pos);
+            long d = 0L;
+            if(s.debitId(pos) == account) d += PostingEngine.debitDelta(type, amt);
+            if(s.creditId(pos) == account) d += PostingEngine.creditDelta(type, amt);
+            return d;
+        }
+    }
+}
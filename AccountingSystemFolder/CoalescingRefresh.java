@@ -0,0 +1,33 @@
+import javax.swing.*;
+
+/**
+ * CoalescingRefresh
+ *
+ * Folds a burst of refresh requests into one run of a view rebuild on the EDT.
+ * - request() may be called from any thread, any number of times; the rebuild runs once,
+ *   {@code delayMs} after the first request of a burst (not pushed back by later ones,
+ *   so a steady stream of posts still repaints at a steady rate)
+ * - flush() runs a pending rebuild now, for code that needs the views current
+ */
+final class CoalescingRefresh {
+
+    private final Runnable rebuild;
+    private final Timer timer;
+
+    CoalescingRefresh(int delayMs, Runnable rebuild){
+        this.rebuild = rebuild;
+        this.timer = new Timer(delayMs, e -> rebuild.run());
+        this.timer.setRepeats(false);
+    }
+
+    void request(){
+        if(!SwingUtilities.isEventDispatchThread()){ SwingUtilities.invokeLater(this::request); return; }
+        if(!timer.isRunning()) timer.start();
+    }
+
+    void flush(){
+        if(!timer.isRunning()) return;
+        timer.stop();
+        rebuild.run();
+    }
+}
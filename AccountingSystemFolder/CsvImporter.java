@@ -0,0 +1,240 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * CsvImporter
+ *
+ * Bulk import of historical transactions into a PostingEngine.
+ * - Expected columns: date, description, debit, credit, amount (an optional header row
+ *   starting with "date" is skipped); fields may be double-quoted, with "" as an escaped quote
+ * - read() streams the file and parses/validates chunks of lines in parallel on the common
+ *   ForkJoinPool, with a bounded number of chunks in flight; rows keep their file order
+ * - Validation matches onAddTransaction(): all fields present, yyyy-MM-dd date (same
+ *   formatter) after the day the books are closed through, debit and credit different
+ *   after canonicalize(), amount greater than zero
+ * - Batch.postTo() runs the hybrid account-type rules once per distinct account name and
+ *   posts every accepted row as one atomic batch; callers refresh their views once afterwards
+ * - parse() does the same for lines already in memory (e.g. pasted into the app)
+ */
+final class CsvImporter {
+
+    static final int CHUNK_ROWS = 8192;
+    static final int MAX_REPORTED = 1000; // rejected rows kept with line number and reason
+
+    private CsvImporter(){}
+
+    static final class Rejected {
+        final long line;
+        final String reason;
+        Rejected(long line, String reason){ this.line = line; this.reason = reason; }
+        @Override public String toString(){ return "line " + line + ": " + reason; }
+    }
+
+    private static final class Chunk {
+        final List<AccountingSystem3_fixed.Transaction> transactions = new ArrayList<>();
+        final Set<String> accountNames = new LinkedHashSet<>();
+        final List<Rejected> rejected = new ArrayList<>();
+    }
+
+    /**
+     * Parsed, validated rows of one file, ready to post: their transactions in file order and
+     * each distinct account name as typed, each kept once, so posting copies neither.
+     */
+    static final class Batch {
+        private final List<AccountingSystem3_fixed.Transaction> transactions = new ArrayList<>();
+        private final Set<String> accountNames = new LinkedHashSet<>(); // first seen first; may carry a [TYPE] token
+        final List<Rejected> rejected = new ArrayList<>();
+        long rejectedCount, linesRead, parseNanos, postNanos;
+
+        int size(){ return transactions.size(); }
+
+        /**
+         * Posts the accepted rows as one PostingEngine.postBatch(): the account rules run once
+         * per distinct name, and the rows go on the books together or not at all. Returns
+         * the log sequence number to await before acknowledging them (see postBatch()).
+         */
+        long postTo(PostingEngine engine){
+            long t0 = System.nanoTime();
+            long seq = engine.postBatch(accountNames(), transactions());
+            postNanos = System.nanoTime() - t0;
+            return seq;
+        }
+
+        /** Each distinct account name of the rows, as typed (for PostingEngine.postBatch()); a read-only view. */
+        Set<String> accountNames(){ return Collections.unmodifiableSet(accountNames); }
+
+        /** The rows' transactions, in order; a read-only view. */
+        List<AccountingSystem3_fixed.Transaction> transactions(){ return Collections.unmodifiableList(transactions); }
+
+        String summary(){
+            double secs = (parseNanos + postNanos) / 1e9;
+            return String.format("Imported %,d of %,d rows in %.2f s (%,.0f rows/s); %,d rejected.",
+                    size(), size() + rejectedCount, secs, secs > 0 ? (size() + rejectedCount) / secs : 0.0, rejectedCount);
+        }
+    }
+
+    // ---------------------- Reading ----------------
+    /** Reads {@code file}; rows dated on or before {@code closedThrough} (PostingEngine.closedThrough()) are rejected. */
+    static Batch read(Path file, int closedThrough) throws IOException {
+        long t0 = System.nanoTime();
+        Batch batch = new Batch();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+
+        try(BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)){
+            List<String> lines = new ArrayList<>(CHUNK_ROWS);
+            long lineNo = 0, chunkStart = 1;
+            String line;
+            while((line = in.readLine()) != null){
+                lineNo++;
+                if(lineNo == 1 && isHeader(line)){ chunkStart = 2; continue; }
+                lines.add(line);
+                if(lines.size() == CHUNK_ROWS){
+                    submit(pool, inFlight, lines, chunkStart, closedThrough);
+                    lines = new ArrayList<>(CHUNK_ROWS);
+                    chunkStart = lineNo + 1;
+                    while(inFlight.size() >= maxInFlight) merge(batch, inFlight.removeFirst());
+                }
+            }
+            if(!lines.isEmpty()) submit(pool, inFlight, lines, chunkStart, closedThrough);
+            batch.linesRead = lineNo;
+        }
+        while(!inFlight.isEmpty()) merge(batch, inFlight.removeFirst());
+        batch.parseNanos = System.nanoTime() - t0;
+        return batch;
+    }
+
+    /** Parses and validates lines held in memory (numbered from 1; a header line is skipped), as read() does. */
+    static Batch parse(List<String> lines, int closedThrough){
+        long t0 = System.nanoTime();
+        Batch batch = new Batch();
+        int skip = !lines.isEmpty() && isHeader(lines.get(0)) ? 1 : 0;
+        Chunk c = parseChunk(lines.subList(skip, lines.size()), 1 + skip, closedThrough);
+        batch.transactions.addAll(c.transactions);
+        batch.accountNames.addAll(c.accountNames);
+        batch.rejectedCount = c.rejected.size();
+        batch.rejected.addAll(c.rejected.subList(0, Math.min(MAX_REPORTED, c.rejected.size())));
+        batch.linesRead = lines.size();
+        batch.parseNanos = System.nanoTime() - t0;
+        return batch;
+    }
+
+    private static boolean isHeader(String line){
+        String s = line.trim();
+        if(s.startsWith("\uFEFF")) s = s.substring(1); // byte-order mark
+        if(s.startsWith("\"")) s = s.substring(1);
+        return s.regionMatches(true, 0, "date", 0, 4);
+    }
+
+    private static void submit(ForkJoinPool pool, Deque<Future<Chunk>> inFlight, List<String> lines, long firstLine, int closedThrough){
+        inFlight.addLast(pool.submit(() -> parseChunk(lines, firstLine, closedThrough)));
+    }
+
+    private static void merge(Batch batch, Future<Chunk> f) throws IOException {
+        Chunk c;
+        try { c = f.get(); }
+        catch(InterruptedException e){ Thread.currentThread().interrupt(); throw new IOException("Import interrupted", e); }
+        catch(ExecutionException e){ throw new IOException("Import failed", e.getCause()); }
+        batch.transactions.addAll(c.transactions);
+        batch.accountNames.addAll(c.accountNames);
+        batch.rejectedCount += c.rejected.size();
+        for(Rejected r : c.rejected){
+            if(batch.rejected.size() >= MAX_REPORTED) break;
+            batch.rejected.add(r);
+        }
+    }
+
+    private static Chunk parseChunk(List<String> lines, long firstLine, int closedThrough){
+        Chunk c = new Chunk();
+        Map<String, Integer> days = new HashMap<>(); // books repeat dates heavily; parse each once per chunk
+        for(int i = 0; i < lines.size(); i++){
+            String line = lines.get(i);
+            long lineNo = firstLine + i;
+            if(line.trim().isEmpty()) continue;
+            String error = parseRow(line, c.transactions, c.accountNames, days, closedThrough);
+            if(error != null) c.rejected.add(new Rejected(lineNo, error));
+        }
+        return c;
+    }
+
+    /** Validates one line and adds it to {@code out} (its account names to {@code names}); returns the rejection reason, or null. */
+    private static String parseRow(String line, List<AccountingSystem3_fixed.Transaction> out, Set<String> names,
+                                   Map<String, Integer> days, int closedThrough){
+        List<String> f = splitCsv(line);
+        if(f.size() != 5) return "expected 5 fields, found " + f.size();
+        return validateRow(f.get(0), f.get(1), f.get(2), f.get(3), f.get(4), out, names, days, closedThrough);
+    }
+
+    /**
+     * Same validation for fields that arrive some other way (e.g. IngestServer's JSON):
+     * adds the row to {@code batch}, or returns the rejection reason. Null fields count as missing.
+     */
+    static String addRow(Batch batch, String date, String description, String debit, String credit, String amount,
+                         Map<String, Integer> days, int closedThrough){
+        if(date == null || description == null || debit == null || credit == null || amount == null) return "missing field";
+        return validateRow(date, description, debit, credit, amount, batch.transactions, batch.accountNames, days, closedThrough);
+    }
+
+    private static String validateRow(String dateText, String descText, String debitText, String creditText, String amountText,
+                                      List<AccountingSystem3_fixed.Transaction> out, Set<String> names,
+                                      Map<String, Integer> days, int closedThrough){
+        String date = dateText.trim(), desc = descText.trim(), debitRaw = debitText.trim(), creditRaw = creditText.trim();
+        if(date.isEmpty() || desc.isEmpty() || debitRaw.isEmpty() || creditRaw.isEmpty()) return "missing field";
+        if(desc.length() > AccountingSystem3_fixed.Transaction.MAX_DESCRIPTION) return PostingEngine.descriptionTooLong();
+
+        String debit = AccountingSystem3_fixed.canonicalize(debitRaw);
+        String credit = AccountingSystem3_fixed.canonicalize(creditRaw);
+        if(debit.isEmpty() || credit.isEmpty()) return "missing account name";
+        if(debit.equals(credit)) return "debit and credit are the same account";
+        int epochDay = days.computeIfAbsent(date, CsvImporter::epochDayOrInvalid);
+        if(epochDay == INVALID_DATE) return "invalid date '" + date + "' (use YYYY-MM-DD)";
+        if(epochDay <= closedThrough) return "dated in a closed period (closed through " + AccountingSystem3_fixed.DATE_FMT.format(LocalDate.ofEpochDay(closedThrough)) + ")";
+        long amount;
+        try { amount = Money.parse(amountText); }
+        catch(NumberFormatException | ArithmeticException ex){ return "invalid amount '" + amountText.trim() + "'"; }
+        if(amount <= 0) return "amount must be greater than zero";
+
+        out.add(new AccountingSystem3_fixed.Transaction(epochDay, desc, AccountIds.intern(debit), AccountIds.intern(credit), amount));
+        names.add(debitRaw);
+        names.add(creditRaw);
+        return null;
+    }
+
+    private static final int INVALID_DATE = Integer.MIN_VALUE;
+
+    private static int epochDayOrInvalid(String date){
+        try { return AccountingSystem3_fixed.epochDayOf(date); }
+        catch(Exception ex){ return INVALID_DATE; }
+    }
+
+    /** Splits one CSV line; quoted fields may contain commas and "" for a literal quote. */
+    static List<String> splitCsv(String line){
+        List<String> out = new ArrayList<>(5);
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); i++){
+            char c = line.charAt(i);
+            if(quoted){
+                if(c == '"'){
+                    if(i + 1 < line.length() && line.charAt(i + 1) == '"'){ cur.append('"'); i++; }
+                    else quoted = false;
+                } else cur.append(c);
+            } else if(c == '"'){
+                quoted = true;
+            } else if(c == ','){
+                out.add(cur.toString()); cur.setLength(0);
+            } else cur.append(c);
+        }
+        out.add(cur.toString());
+        return out;
+    }
+}
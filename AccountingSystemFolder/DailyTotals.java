@@ -0,0 +1,104 @@
+import java.util.Arrays;
+
+/**
+ * DailyTotals
+ *
+ * One account's debit and credit totals keyed by date, as a pair of Fenwick (binary
+ * indexed) trees over the distinct days the account has entries on, in date order.
+ * - add() on a day already present and the "through day D" prefix sums are O(log days),
+ *   wherever D falls, so a back-dated entry on a known day costs the same as a current one
+ * - Memory is O(distinct days with entries), whatever the calendar span between them: an
+ *   entry dated 0001-01-01 next to one dated 9999-12-31 costs two slots
+ * - A new day after the last one is appended in O(log days); a new day before it shifts
+ *   the later ones, which rebuilds the trees in O(days)
+ * - Debits and credits are kept apart (not a net balance) so a type change does not
+ *   invalidate the tree; PostingEngine.balanceOf() turns them into a balance
+ */
+final class DailyTotals {
+
+    private static final int INITIAL_DAYS = 16;
+
+    private int[] days = new int[INITIAL_DAYS]; // distinct days, ascending; [0, n) in use
+    private long[] debits = new long[INITIAL_DAYS + 1]; // Fenwick trees over ranks, 1-based,
+    private long[] credits = new long[INITIAL_DAYS + 1]; // valid for slots 1..n
+    private int n;
+
+    void add(int day, long debit, long credit){
+        int r = Arrays.binarySearch(days, 0, n, day);
+        if(r < 0) r = insert(-r - 1, day);
+        for(int i = r + 1; i <= n; i += i & -i){
+            debits[i] += debit;
+            credits[i] += credit;
+        }
+    }
+
+    /** Sum of debits dated on or before {@code day}. */
+    long debitsThrough(int day){ return prefix(debits, rankThrough(day)); }
+
+    /** Sum of credits dated on or before {@code day}. */
+    long creditsThrough(int day){ return prefix(credits, rankThrough(day)); }
+
+    /** Number of distinct days with entries. */
+    int days(){ return n; }
+
+    // number of days on or before {@code day}
+    private int rankThrough(int day){
+        int r = Arrays.binarySearch(days, 0, n, day);
+        return r >= 0 ? r + 1 : -r - 1;
+    }
+
+    private static long prefix(long[] tree, int slots){
+        long sum = 0L;
+        for(int i = slots; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    /** Makes room for {@code day} at rank {@code r} with zero totals; returns r. */
+    private int insert(int r, int day){
+        if(n == days.length){
+            int capacity = days.length * 2;
+            days = Arrays.copyOf(days, capacity);
+            debits = Arrays.copyOf(debits, capacity + 1);
+            credits = Arrays.copyOf(credits, capacity + 1);
+        }
+        if(r == n){
+            // appended slot: a node covers (i - lowbit(i), i], all of it already there but i itself
+            days[n++] = day;
+            int i = n, from = i - (i & -i);
+            debits[i] = prefix(debits, i - 1) - prefix(debits, from);
+            credits[i] = prefix(credits, i - 1) - prefix(credits, from);
+            return r;
+        }
+        long[] d = pointValues(debits, n), c = pointValues(credits, n);
+        System.arraycopy(days, r, days, r + 1, n - r);
+        System.arraycopy(d, r + 1, d, r + 2, n - r);
+        System.arraycopy(c, r + 1, c, r + 2, n - r);
+        days[r] = day;
+        d[r + 1] = 0L;
+        c[r + 1] = 0L;
+        n++;
+        build(d, n);
+        build(c, n);
+        debits = d;
+        credits = c;
+        return r;
+    }
+
+    /** Per-slot values (1-based) recovered from the first {@code slots} slots of a Fenwick tree. */
+    private static long[] pointValues(long[] tree, int slots){
+        long[] v = Arrays.copyOf(tree, tree.length);
+        for(int i = slots; i > 0; i--){
+            int parent = i + (i & -i);
+            if(parent <= slots) v[parent] -= tree[i];
+        }
+        return v;
+    }
+
+    /** Turns per-slot values 1..slots into a Fenwick tree in place; O(slots). */
+    private static void build(long[] tree, int slots){
+        for(int i = 1; i <= slots; i++){
+            int parent = i + (i & -i);
+            if(parent <= slots) tree[parent] += tree[i];
+        }
+    }
+}
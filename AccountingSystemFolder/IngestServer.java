@@ -0,0 +1,440 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * IngestServer
+ *
+ * Optional embedded HTTP endpoint (com.sun.net.httpserver) through which other systems post
+ * transactions to a PostingEngine as JSON.
+ * - POST /transactions takes one object, an array of them, or {"transactions": [...]}, each
+ *   {"date": "yyyy-MM-dd", "description": ..., "debit": ..., "credit": ..., "amount": ...};
+ *   amount may be a JSON number or a money string such as "1,250.00"
+ * - Every entry goes through CsvImporter's row validation (the onAddTransaction() rules);
+ *   account names may carry a [TYPE] token and follow the hybrid type detection
+ * - Request threads only parse and validate. A single committer gathers whatever requests
+ *   have queued up (within commitDelayMillis) and hands them to the ledger executor, which
+ *   posts them with one PostingEngine.postBatches(): one log append for all of them, but
+ *   each request checked, posted or refused (422, with its own entry indexes) on its own.
+ *   The response is sent once the request's entries are on the books and their log
+ *   records written (503 if the log has failed). Thousands of small requests become a few
+ *   large posts
+ * - The ledger executor is where the book is changed: the EDT in the app (so the views stay
+ *   single-threaded), or the committer thread itself when running headless
+ * - One virtual thread per request when the JDK has them (21+), else a fixed pool
+ * - GET /health reports the number of transactions on the books
+ */
+final class IngestServer implements Closeable {
+
+    static final int MAX_BODY_BYTES = 16 << 20;
+    static final int MAX_BATCH_ROWS = 1 << 16; // a merged batch stops growing here
+    static final int FALLBACK_THREADS = 64;
+
+    static {
+        // the JDK server leaves Nagle on by default, which with delayed ACKs adds ~40 ms to each
+        // keep-alive round trip; read once, when the first HttpServer is created
+        if(System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final PostingEngine engine;
+    private final Executor ledger;
+    private final long commitDelayMillis;
+    private final HttpServer http;
+    private final ExecutorService requests;
+
+    private final Object lock = new Object();
+    private final List<Pending> queue = new ArrayList<>();
+    private int queuedRows;
+    private boolean closed;
+    private final Thread committer;
+
+    /** One request's validated entries, completed with their log sequence number once they are posted. */
+    private static final class Pending {
+        final CsvImporter.Batch batch;
+        final CompletableFuture<Long> posted = new CompletableFuture<>();
+        Pending(CsvImporter.Batch batch){ this.batch = batch; }
+    }
+
+    /**
+     * Starts listening on {@code address}. {@code ledger} runs each merged batch's post;
+     * pass Runnable::run to post on the committer thread.
+     */
+    IngestServer(PostingEngine engine, InetSocketAddress address, Executor ledger, long commitDelayMillis) throws IOException {
+        this.engine = engine;
+        this.ledger = ledger;
+        this.commitDelayMillis = commitDelayMillis;
+        this.requests = requestExecutor();
+        this.http = HttpServer.create(address, 1024);
+        http.setExecutor(requests);
+        http.createContext("/transactions", this::handleTransactions);
+        http.createContext("/health", this::handleHealth);
+        committer = new Thread(this::runCommitter, "ingest-committer");
+        committer.setDaemon(true);
+        committer.start();
+        http.start();
+    }
+
+    int port(){ return http.getAddress().getPort(); }
+
+    /**
+     * Stops accepting requests and waits for the committer to hand over what is queued.
+     * Requests whose batch the ledger executor has not run yet are answered by it later
+     * (or never, if the process exits first); none is acknowledged before it is posted.
+     */
+    @Override
+    public void close(){
+        synchronized(lock){
+            closed = true;
+            lock.notifyAll();
+        }
+        http.stop(0);
+        try { committer.join(); } catch(InterruptedException e){ Thread.currentThread().interrupt(); }
+        requests.shutdown();
+    }
+
+    /** Virtual thread per task if this JDK has it (looked up reflectively: the build targets 17). */
+    static ExecutorService requestExecutor(){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch(ReflectiveOperationException | RuntimeException ex){
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, r -> {
+                Thread t = new Thread(r, "ingest-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // ---------------------- Handlers ----------------
+    private void handleTransactions(HttpExchange ex) throws IOException {
+        try {
+            if(!"POST".equals(ex.getRequestMethod())){ respond(ex, 405, "{\"error\":\"use POST\"}"); return; }
+            byte[] body = readBody(ex.getRequestBody());
+            if(body == null){ respond(ex, 413, "{\"error\":\"body larger than " + MAX_BODY_BYTES + " bytes\"}"); return; }
+
+            List<?> items;
+            try { items = entries(Json.parse(new String(body, StandardCharsets.UTF_8))); }
+            catch(IllegalArgumentException bad){ respond(ex, 400, "{\"error\":" + Json.quote(bad.getMessage()) + "}"); return; }
+
+            CsvImporter.Batch batch = new CsvImporter.Batch();
+            Map<String, Integer> days = new HashMap<>();
+            int closedThrough = engine.closedThrough(); // the engine checks again when it posts
+            List<Integer> itemOfEntry = new ArrayList<>(); // batch entry -> index in the request
+            StringBuilder rejected = new StringBuilder();
+            for(int i = 0; i < items.size(); i++){
+                String error = items.get(i) instanceof Map ? addEntry(batch, (Map<?, ?>) items.get(i), days, closedThrough) : "not a JSON object";
+                if(error == null) itemOfEntry.add(i);
+                else reject(rejected, i, error);
+            }
+
+            if(batch.size() > 0){
+                try {
+                    long seq = submit(batch).get();
+                    TransactionLog log = engine.log();
+                    if(seq > 0 && log != null) log.awaitWritten(seq); // durable (per the fsync policy) before the 200
+                }
+                catch(IOException logFailed){
+                    respond(ex, 503, "{\"error\":" + Json.quote("transaction log write failed: " + logFailed.getMessage()) + "}");
+                    return;
+                }
+                catch(ExecutionException failed){
+                    Throwable cause = failed.getCause() != null ? failed.getCause() : failed;
+                    if(cause instanceof PostingEngine.BatchRejected){ // this request alone; nothing of it was posted
+                        PostingEngine.BatchRejected r = (PostingEngine.BatchRejected) cause;
+                        for(int k = 0; k < r.indexes.length; k++) reject(rejected, itemOfEntry.get(r.indexes[k]), r.reasons.get(k));
+                        respond(ex, 422, "{\"accepted\":0,\"rejected\":[" + rejected + "]}");
+                        return;
+                    }
+                    respond(ex, 503, "{\"error\":" + Json.quote(String.valueOf(cause.getMessage())) + "}");
+                    return;
+                }
+                catch(InterruptedException interrupted){
+                    Thread.currentThread().interrupt();
+                    respond(ex, 503, "{\"error\":\"interrupted\"}");
+                    return;
+                }
+            }
+            int status = batch.size() == 0 && rejected.length() > 0 ? 422 : 200;
+            respond(ex, status, "{\"accepted\":" + batch.size() + ",\"rejected\":[" + rejected + "]}");
+        } finally {
+            ex.close();
+        }
+    }
+
+    private static void reject(StringBuilder rejected, int index, String reason){
+        if(rejected.length() > 0) rejected.append(',');
+        rejected.append("{\"index\":").append(index).append(",\"reason\":").append(Json.quote(reason)).append('}');
+    }
+
+    private void handleHealth(HttpExchange ex) throws IOException {
+        try { respond(ex, 200, "{\"status\":\"ok\",\"transactions\":" + engine.store().size() + "}"); }
+        finally { ex.close(); }
+    }
+
+    /** The list of entry objects in a request body (single object, array, or {"transactions": [...]}). */
+    private static List<?> entries(Object json){
+        if(json instanceof List) return (List<?>) json;
+        if(json instanceof Map){
+            Object wrapped = ((Map<?, ?>) json).get("transactions");
+            if(wrapped instanceof List) return (List<?>) wrapped;
+            return Collections.singletonList(json);
+        }
+        throw new IllegalArgumentException("expected a transaction object or an array of them");
+    }
+
+    private static String addEntry(CsvImporter.Batch batch, Map<?, ?> o, Map<String, Integer> days, int closedThrough){
+        return CsvImporter.addRow(batch, text(o.get("date")), text(o.get("description")),
+                text(o.get("debit")), text(o.get("credit")), text(o.get("amount")), days, closedThrough);
+    }
+
+    private static String text(Object v){
+        return v instanceof String ? (String) v : v instanceof Json.Num ? ((Json.Num) v).text : null;
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        byte[] buf = new byte[8192];
+        for(int n; (n = in.read(buf)) > 0; ){
+            if(out.size() + n > MAX_BODY_BYTES) return null;
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try(OutputStream out = ex.getResponseBody()){ out.write(bytes); }
+    }
+
+    // ---------------------- Group commit ----------------
+    private CompletableFuture<Long> submit(CsvImporter.Batch batch){
+        Pending p = new Pending(batch);
+        synchronized(lock){
+            if(closed){
+                p.posted.completeExceptionally(new IllegalStateException("server is shutting down"));
+                return p.posted;
+            }
+            queue.add(p);
+            queuedRows += batch.size();
+            lock.notifyAll();
+        }
+        return p.posted;
+    }
+
+    private void runCommitter(){
+        while(true){
+            List<Pending> group;
+            synchronized(lock){
+                while(queue.isEmpty() && !closed){
+                    try { lock.wait(); } catch(InterruptedException e){ return; }
+                }
+                if(queue.isEmpty()) return; // closed and drained
+                // let concurrent requests pile up into one batch
+                long deadline = System.currentTimeMillis() + commitDelayMillis;
+                while(!closed && queuedRows < MAX_BATCH_ROWS){
+                    long left = deadline - System.currentTimeMillis();
+                    if(left <= 0) break;
+                    try { lock.wait(left); } catch(InterruptedException e){ return; }
+                }
+                group = new ArrayList<>(queue);
+                queue.clear();
+                queuedRows = 0;
+            }
+            List<Collection<String>> names = new ArrayList<>(group.size());
+            List<List<AccountingSystem3_fixed.Transaction>> entries = new ArrayList<>(group.size());
+            for(Pending p : group){
+                names.add(p.batch.accountNames());
+                entries.add(p.batch.transactions());
+            }
+            try {
+                ledger.execute(() -> {
+                    try {
+                        PostingEngine.Posted posted = engine.postBatches(names, entries);
+                        for(int i = 0; i < group.size(); i++){
+                            if(posted.rejected[i] != null) group.get(i).posted.completeExceptionally(posted.rejected[i]);
+                            else group.get(i).posted.complete(posted.seq);
+                        }
+                    } catch(RuntimeException failed){
+                        for(Pending p : group) p.posted.completeExceptionally(failed);
+                    }
+                });
+            } catch(RuntimeException rejected){
+                for(Pending p : group) p.posted.completeExceptionally(rejected);
+            }
+        }
+    }
+
+    // ---------------------- JSON ----------------
+    /**
+     * Just enough JSON for request bodies: objects (LinkedHashMap), arrays (ArrayList),
+     * strings, numbers (kept as their text, see Num), true/false and null.
+     */
+    static final class Json {
+        /** A number as written, so amounts are parsed by Money.parse and never go through double. */
+        static final class Num {
+            final String text;
+            Num(String text){ this.text = text; }
+            @Override public String toString(){ return text; }
+        }
+
+        private final String s;
+        private int i;
+
+        private Json(String s){ this.s = s; }
+
+        static Object parse(String text){
+            Json p = new Json(text);
+            Object v = p.value();
+            p.skipSpace();
+            if(p.i != text.length()) throw p.error("unexpected trailing data");
+            return v;
+        }
+
+        static String quote(String text){
+            StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+            for(int k = 0; k < text.length(); k++){
+                char c = text.charAt(k);
+                switch(c){
+                    case '"': sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if(c < 0x20) sb.append(String.format("\\u%04x", (int) c)); else sb.append(c);
+                }
+            }
+            return sb.append('"').toString();
+        }
+
+        private Object value(){
+            skipSpace();
+            if(i >= s.length()) throw error("unexpected end of input");
+            char c = s.charAt(i);
+            switch(c){
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default:
+                    if(c == '-' || (c >= '0' && c <= '9')) return number();
+                    throw error("unexpected character '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> object(){
+            Map<String, Object> m = new LinkedHashMap<>();
+            i++; // {
+            skipSpace();
+            if(peek('}')){ i++; return m; }
+            while(true){
+                skipSpace();
+                if(!peek('"')) throw error("expected a field name");
+                String key = string();
+                skipSpace();
+                expect(':');
+                m.put(key, value());
+                skipSpace();
+                if(peek(',')){ i++; continue; }
+                expect('}');
+                return m;
+            }
+        }
+
+        private List<Object> array(){
+            List<Object> a = new ArrayList<>();
+            i++; // [
+            skipSpace();
+            if(peek(']')){ i++; return a; }
+            while(true){
+                a.add(value());
+                skipSpace();
+                if(peek(',')){ i++; continue; }
+                expect(']');
+                return a;
+            }
+        }
+
+        private String string(){
+            i++; // opening quote
+            StringBuilder sb = null;
+            int start = i;
+            while(i < s.length()){
+                char c = s.charAt(i);
+                if(c == '"'){
+                    String out = sb == null ? s.substring(start, i) : sb.append(s, start, i).toString();
+                    i++;
+                    return out;
+                }
+                if(c == '\\'){
+                    if(sb == null) sb = new StringBuilder();
+                    sb.append(s, start, i);
+                    if(++i >= s.length()) break;
+                    char e = s.charAt(i++);
+                    switch(e){
+                        case '"': case '\\': case '/': sb.append(e); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'u':
+                            if(i + 4 > s.length()) throw error("bad \\u escape");
+                            try { sb.append((char) Integer.parseInt(s.substring(i, i + 4), 16)); }
+                            catch(NumberFormatException bad){ throw error("bad \\u escape"); }
+                            i += 4;
+                            break;
+                        default: throw error("bad escape '\\" + e + "'");
+                    }
+                    start = i;
+                    continue;
+                }
+                i++;
+            }
+            throw error("unterminated string");
+        }
+
+        private Num number(){
+            int start = i;
+            if(peek('-')) i++;
+            while(i < s.length() && "0123456789.eE+-".indexOf(s.charAt(i)) >= 0) i++;
+            return new Num(s.substring(start, i));
+        }
+
+        private Object literal(String word, Object v){
+            if(!s.startsWith(word, i)) throw error("unexpected token");
+            i += word.length();
+            return v;
+        }
+
+        private void skipSpace(){
+            while(i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        }
+
+        private boolean peek(char c){ return i < s.length() && s.charAt(i) == c; }
+
+        private void expect(char c){
+            if(!peek(c)) throw error("expected '" + c + "'");
+            i++;
+        }
+
+        private IllegalArgumentException error(String what){
+            return new IllegalArgumentException("invalid JSON at offset " + i + ": " + what);
+        }
+    }
+}
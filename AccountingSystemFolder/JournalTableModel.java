@@ -0,0 +1,45 @@
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * JournalTableModel
+ *
+ * Read-only "General Journal" model over the posting engine's TransactionStore.
+ * Each transaction is shown as two lines (debit line, then credit line); the lines
+ * are derived on demand from the row index (transaction = row / 2), so the journal
+ * costs no memory of its own. Debit/Credit are Long centavos, null on the other side's line.
+ */
+class JournalTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"Date","Description","Account","Debit","Credit"};
+
+    private final TransactionStore store;
+
+    JournalTableModel(TransactionStore store){
+        this.store = store;
+    }
+
+    @Override public int getRowCount(){ return store.size() * 2; }
+    @Override public int getColumnCount(){ return COLUMNS.length; }
+    @Override public String getColumnName(int c){ return COLUMNS[c]; }
+    @Override public boolean isCellEditable(int r, int c){ return false; }
+    @Override public Class<?> getColumnClass(int c){ return c >= 3 ? Long.class : String.class; }
+
+    @Override
+    public Object getValueAt(int row, int col){
+        int pos = row / 2;
+        boolean debitLine = (row & 1) == 0;
+        switch(col){
+            case 0: return store.date(pos);
+            case 1: return store.description(pos);
+            case 2: return AccountIds.name(debitLine ? store.debitId(pos) : store.creditId(pos));
+            case 3: return debitLine ? (Object) store.amount(pos) : null;
+            case 4: return debitLine ? null : (Object) store.amount(pos);
+            default: return null;
+        }
+    }
+
+    /** Call after transactions [first, last] were appended; inserts their two lines each. */
+    void fireTransactionsAppended(int first, int last){
+        if(last >= first) fireTableRowsInserted(first * 2, last * 2 + 1);
+    }
+}
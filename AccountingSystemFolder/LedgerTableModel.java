@@ -0,0 +1,116 @@
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * LedgerTableModel
+ *
+ * General Ledger table (Date, Description, Debit, Credit, Running) that never holds the
+ * ledger as rows. A subclass exposes one account's postings by index; rows are made when
+ * the table asks for them, i.e. for the visible part only, and running balances are worked
+ * out a WINDOW of postings at a time around the row asked for.
+ * - A window's running balance is seeded from the nearest checkpoint (the balance before
+ *   every STRIDE-th posting) instead of being summed from the first posting. Checkpoints
+ *   are filled lazily, in order, as deep as the table has scrolled, so the first paint
+ *   reads one window, and a jump to the end pays one pass the first time only
+ * - Memory is the checkpoints and one window, whatever the number of postings
+ * - An optional first row carries the opening balance of a bounded period
+ * - Money columns are Long centavos (null on the other side's line); see MoneyRenderer
+ * - EDT only, like any table model
+ */
+abstract class LedgerTableModel extends AbstractTableModel {
+
+    static final int WINDOW = 256;  // postings per window of running balances
+    static final int STRIDE = 1024; // postings per checkpoint (a multiple of WINDOW)
+    private static final String[] COLUMNS = {"Date","Description","Debit","Credit","Running"};
+
+    private String openingDate; // null: no opening row
+    private long opening;
+    private long[] checkpoints = {0L}; // [i] = running balance before posting i * STRIDE
+    private int known = 1;             // checkpoints filled so far
+    private final long[] running = new long[WINDOW]; // after each posting of the window
+    private int windowStart = -1, windowSize;
+
+    // ---------------------- Postings (subclass) ----------------
+    abstract int postings();
+    abstract String date(int k);
+    abstract String description(int k);
+    abstract boolean isDebit(int k); // shown in the Debit column, else Credit
+    abstract long amount(int k);
+    abstract long delta(int k);      // signed effect on the running balance
+
+    /**
+     * Starts over on the subclass's current postings, with an opening-balance row dated
+     * {@code openingDate} (null for none; the running balance then starts from zero).
+     */
+    void reset(String openingDate, long opening){
+        this.openingDate = openingDate;
+        this.opening = openingDate == null ? 0L : opening;
+        checkpoints = new long[postings() / STRIDE + 1];
+        checkpoints[0] = this.opening;
+        known = 1;
+        windowStart = -1;
+        windowSize = 0;
+        fireTableDataChanged();
+    }
+
+    // ---------------------- TableModel ----------------
+    @Override public int getRowCount(){ return postings() + firstPostingRow(); }
+    @Override public int getColumnCount(){ return COLUMNS.length; }
+    @Override public String getColumnName(int c){ return COLUMNS[c]; }
+    @Override public Class<?> getColumnClass(int c){ return c >= 2 ? Long.class : String.class; }
+    @Override public boolean isCellEditable(int r, int c){ return false; }
+
+    @Override
+    public Object getValueAt(int row, int col){
+        int k = row - firstPostingRow();
+        if(k < 0){
+            switch(col){
+                case 0: return openingDate;
+                case 1: return "Opening balance";
+                case 4: return opening;
+                default: return null;
+            }
+        }
+        switch(col){
+            case 0: return date(k);
+            case 1: return description(k);
+            case 2: return isDebit(k) ? (Object) amount(k) : null;
+            case 3: return isDebit(k) ? null : (Object) amount(k);
+            case 4: return runningAfter(k);
+            default: return null;
+        }
+    }
+
+    private int firstPostingRow(){ return openingDate == null ? 0 : 1; }
+
+    // ---------------------- Running balances ----------------
+    /** Running balance after posting {@code k}. */
+    long runningAfter(int k){
+        if(k < windowStart || k >= windowStart + windowSize) load(k - k % WINDOW);
+        return running[k - windowStart];
+    }
+
+    private void load(int start){
+        // scrolling down a window at a time carries on from the previous one
+        long balance = start == windowStart + windowSize && windowSize > 0 ? running[windowSize - 1] : before(start);
+        int size = Math.min(WINDOW, postings() - start);
+        for(int i = 0; i < size; i++){
+            balance += delta(start + i);
+            running[i] = balance;
+        }
+        windowStart = start;
+        windowSize = size;
+    }
+
+    /** Running balance before posting {@code k}, from the checkpoint at or before it. */
+    private long before(int k){
+        int c = k / STRIDE;
+        while(known <= c){
+            long balance = checkpoints[known - 1];
+            for(int i = (known - 1) * STRIDE, end = known * STRIDE; i < end; i++) balance += delta(i);
+            checkpoints[known++] = balance;
+        }
+        long balance = checkpoints[c];
+        for(int i = c * STRIDE; i < k; i++) balance += delta(i);
+        return balance;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Money
+ *
+ * Amounts are carried as primitive long centavos (PHP 1.00 == 100L) through posting,
+ * balances and reports, so totals are exact and nothing is parsed on the hot path.
+ * This class only converts at the edges: user input in, display text out.
+ */
+final class Money {
+
+    static final String PESO = "₱";
+
+    private Money(){}
+
+    /** Rounds a UI/double amount to the nearest centavo. */
+    static long ofDouble(double amount){
+        return Math.round(amount * 100.0);
+    }
+
+    static double toDouble(long cents){
+        return cents / 100.0;
+    }
+
+    /**
+     * Parses user or display text into centavos: accepts an optional peso sign,
+     * thousands separators, a leading '-' or accounting parentheses, and up to two
+     * decimals (a third decimal rounds half-up). Throws NumberFormatException otherwise.
+     */
+    static long parse(String text){
+        if(text == null) throw new NumberFormatException("null amount");
+        String s = text.trim();
+        boolean negative = false;
+        if(s.startsWith("(") && s.endsWith(")")){ negative = true; s = s.substring(1, s.length() - 1).trim(); }
+        if(s.startsWith("-")){ negative = !negative; s = s.substring(1).trim(); }
+        if(s.startsWith(PESO)) s = s.substring(PESO.length()).trim();
+        if(s.startsWith("-")){ negative = !negative; s = s.substring(1).trim(); }
+
+        long whole = 0, frac = 0;
+        int fracDigits = 0, digits = 0;
+        boolean inFrac = false, roundUp = false;
+        for(int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            if(c == ',' && !inFrac) continue;
+            if(c == '.' && !inFrac){ inFrac = true; continue; }
+            if(c < '0' || c > '9') throw new NumberFormatException("Invalid amount: " + text);
+            digits++;
+            if(!inFrac){
+                whole = Math.addExact(Math.multiplyExact(whole, 10), c - '0');
+            } else if(fracDigits < 2){
+                frac = frac * 10 + (c - '0'); fracDigits++;
+            } else if(fracDigits == 2){
+                roundUp = c >= '5'; fracDigits++;
+            }
+        }
+        if(digits == 0) throw new NumberFormatException("Invalid amount: " + text);
+        if(fracDigits == 1) frac *= 10;
+        long cents = Math.addExact(Math.multiplyExact(whole, 100), frac + (roundUp ? 1 : 0));
+        return negative ? -cents : cents;
+    }
+
+    /** "₱1,234.50" / "-₱1,234.50", same shape as DecimalFormat("₱#,##0.00"). */
+    static String format(long cents){
+        StringBuilder sb = new StringBuilder(20);
+        if(cents < 0) sb.append('-');
+        sb.append(PESO);
+        appendAbs(sb, cents);
+        return sb.toString();
+    }
+
+    /** Accounting style: negatives in parentheses, e.g. "(₱1,234.50)". */
+    static String formatAccounting(long cents){
+        if(cents >= 0) return format(cents);
+        StringBuilder sb = new StringBuilder(22).append('(').append(PESO);
+        appendAbs(sb, cents);
+        return sb.append(')').toString();
+    }
+
+    private static void appendAbs(StringBuilder sb, long cents){
+        long abs = Math.abs(cents);
+        String whole = Long.toString(abs / 100);
+        int lead = whole.length() % 3;
+        if(lead == 0) lead = 3;
+        sb.append(whole, 0, lead);
+        for(int i = lead; i < whole.length(); i += 3) sb.append(',').append(whole, i, i + 3);
+        long frac = abs % 100;
+        sb.append('.').append((char) ('0' + frac / 10)).append((char) ('0' + frac % 10));
+    }
+}
@@ -0,0 +1,52 @@
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * MoneyRenderer
+ *
+ * Table cell renderer for money columns. The models keep amounts as Long centavos, so
+ * they stay numeric (and sort as numbers); the text is only made here, for the cells the
+ * table actually paints.
+ * - The text of recent amounts is kept in a TextCache, so repainting and scrolling over the
+ *   same amounts does not format (or allocate) again
+ * - Right-aligned; null cells are blank, and any other value is shown as is
+ * - EDT only, like every renderer
+ */
+final class MoneyRenderer extends DefaultTableCellRenderer {
+
+    private final TextCache cache;
+
+    /** {@code accounting}: negatives in parentheses (Money.formatAccounting), else with a minus. */
+    MoneyRenderer(boolean accounting){
+        this.cache = new TextCache(accounting);
+        setHorizontalAlignment(SwingConstants.RIGHT);
+    }
+
+    @Override
+    protected void setValue(Object value){
+        setText(value instanceof Long ? cache.text((Long) value) : value == null ? "" : value.toString());
+    }
+
+    /**
+     * Direct-mapped cache of display text by amount: one slot per hash bucket, a miss just
+     * overwrites the slot. Not thread-safe (meant for one renderer on the EDT).
+     */
+    static final class TextCache {
+        private static final int BITS = 12, SLOTS = 1 << BITS;
+        private final boolean accounting;
+        private final long[] amounts = new long[SLOTS];
+        private final String[] texts = new String[SLOTS];
+
+        TextCache(boolean accounting){ this.accounting = accounting; }
+
+        String text(long cents){
+            int slot = (int) (cents ^ (cents >>> 29)) * 0x9E3779B9 >>> (32 - BITS); // top bits of the mixed amount
+            String t = texts[slot];
+            if(t != null && amounts[slot] == cents) return t;
+            t = accounting ? Money.formatAccounting(cents) : Money.format(cents);
+            amounts[slot] = cents;
+            texts[slot] = t;
+            return t;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * PeriodArchive
+ *
+ * The closed fiscal periods of a PostingEngine book, one immutable compressed segment file
+ * per period close, so the engine only keeps opening balances and open-period entries in
+ * memory. Layout of a segment (big-endian):
+ *
+ *   int magic, int version, int fromDay, int throughDay, long entriesBefore, int entries
+ *   then deflated:
+ *     int nameCount, nameCount x string          -- accounts named by the segment
+ *     nameCount x {long debitsIn, long creditsIn, long debitsOut, long creditsOut,
+ *                  long closingDebits, long closingCredits}
+ *     int descCount, descCount x string
+ *     columns of entries each: int day (delta from the previous entry), int debit (name
+ *     index), int credit, long amount (centavos), int description
+ *
+ * - A segment holds the entries dated in (fromDay, throughDay], the day after the previous
+ *   close through this one, in date order; "in" and "out" are each account's cumulative
+ *   raw totals before and after them, "closing" the period's closing entries (see
+ *   PostingEngine.closePeriod()), which reports keep out of the income statement
+ * - Written once (temp file, forced, renamed) and named by its closing date
+ * - Read on demand: totals at a closing date need only the head (names and totals); a date
+ *   inside a closed period, or a ledger over one, inflates that segment's entries, which
+ *   are held through a SoftReference so the memory goes back under pressure
+ * - A string is DataOutput.writeUTF. Safe from any thread (reports page in from workers)
+ */
+final class PeriodArchive {
+
+    private static final int MAGIC = 0x41435347; // "ACSG"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    private final TreeMap<Integer, Path> files = new TreeMap<>(); // by closing day
+    private final Map<Integer, Segment> heads = new HashMap<>();
+    private final Map<Integer, SoftReference<Segment>> bodies = new HashMap<>();
+
+    /** The archive in {@code dir}; the directory is made on the first close. */
+    PeriodArchive(Path dir) throws IOException {
+        this.dir = dir;
+        if(!Files.isDirectory(dir)) return;
+        try(DirectoryStream<Path> list = Files.newDirectoryStream(dir, "*" + SUFFIX)){
+            for(Path f : list){
+                String name = f.getFileName().toString();
+                try { files.put((int) LocalDate.parse(name.substring(0, name.length() - SUFFIX.length())).toEpochDay(), f); }
+                catch(RuntimeException notOurs){ /* skip */ }
+            }
+        }
+    }
+
+    Path dir(){ return dir; }
+
+    /** Debit and credit totals by AccountIds id, and how many entries they add up (0 where not counted). */
+    static final class Sums {
+        static final Sums NONE = new Sums(new long[0], new long[0], 0L);
+
+        final long[] debits, credits;
+        final long entries;
+
+        Sums(long[] debits, long[] credits, long entries){
+            this.debits = debits; this.credits = credits; this.entries = entries;
+        }
+
+        long debit(int id){ return id < debits.length ? debits[id] : 0L; }
+        long credit(int id){ return id < credits.length ? credits[id] : 0L; }
+    }
+
+    /** One closed period: its totals, and (once paged in) its entries. */
+    static final class Segment {
+        final int fromDay, throughDay; // entries dated in (fromDay, throughDay]
+        final Sums carriedIn, carriedOut;
+        final Sums closing; // the closing entries alone
+        private final TransactionStore store; // date order; null when only the head was read
+        private Sums last;                     // through(lastDay), for runs of same-day calls
+        private int lastDay;
+
+        private Segment(int fromDay, int throughDay, Sums carriedIn, Sums carriedOut, Sums closing, TransactionStore store){
+            this.fromDay = fromDay; this.throughDay = throughDay;
+            this.carriedIn = carriedIn; this.carriedOut = carriedOut; this.closing = closing;
+            this.store = store;
+        }
+
+        /** The period's entries, in date order (paged-in segments only). */
+        TransactionStore store(){ return store; }
+
+        /** Cumulative totals at the end of {@code day}, a day of this period. */
+        synchronized Sums through(int day){
+            if(day >= throughDay) return carriedOut;
+            if(last != null && lastDay == day) return last;
+            int ids = AccountIds.size();
+            long[] d = Arrays.copyOf(carriedIn.debits, ids), c = Arrays.copyOf(carriedIn.credits, ids);
+            int pos = 0;
+            for(; pos < store.size() && store.epochDay(pos) <= day; pos++){
+                d[store.debitId(pos)] += store.amount(pos);
+                c[store.creditId(pos)] += store.amount(pos);
+            }
+            last = new Sums(d, c, carriedIn.entries + pos);
+            lastDay = day;
+            return last;
+        }
+    }
+
+    // ---------------------- Write ----------------
+    /**
+     * Writes the period (fromDay, throughDay]: the entries at {@code positions} of
+     * {@code store} (in date order), on top of the totals {@code carriedIn}. A leftover
+     * segment of an unfinished close inside the period is deleted. Returns the file.
+     */
+    synchronized Path write(int fromDay, int throughDay, TransactionStore store, int[] positions, Sums carriedIn) throws IOException {
+        int ids = AccountIds.size();
+        long[] outD = Arrays.copyOf(carriedIn.debits, ids), outC = Arrays.copyOf(carriedIn.credits, ids);
+        long[] closeD = new long[ids], closeC = new long[ids];
+        int[] local = new int[ids];
+        Arrays.fill(local, -1);
+        List<Integer> names = new ArrayList<>();
+        Map<String, Integer> descs = new LinkedHashMap<>();
+        for(int pos : positions){
+            outD[store.debitId(pos)] += store.amount(pos);
+            outC[store.creditId(pos)] += store.amount(pos);
+            localId(local, names, store.debitId(pos));
+            localId(local, names, store.creditId(pos));
+            descs.putIfAbsent(store.description(pos), descs.size());
+            if(PostingEngine.CLOSING_ENTRY.equals(store.description(pos))){
+                closeD[store.debitId(pos)] += store.amount(pos);
+                closeC[store.creditId(pos)] += store.amount(pos);
+            }
+        }
+        for(int id = 0; id < ids; id++){
+            if(outD[id] != 0L || outC[id] != 0L) localId(local, names, id);
+        }
+
+        Files.createDirectories(dir);
+        Path file = fileFor(throughDay);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try(FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            OutputStream raw = new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16);
+            DataOutputStream head = new DataOutputStream(raw);
+            head.writeInt(MAGIC); head.writeInt(VERSION);
+            head.writeInt(fromDay); head.writeInt(throughDay);
+            head.writeLong(carriedIn.entries); head.writeInt(positions.length);
+            head.flush();
+            Deflater deflater = new Deflater();
+            try {
+                DeflaterOutputStream z = new DeflaterOutputStream(raw, deflater, 1 << 16);
+                DataOutputStream out = new DataOutputStream(z);
+                out.writeInt(names.size());
+                for(int id : names) out.writeUTF(AccountIds.name(id));
+                for(int id : names){
+                    out.writeLong(carriedIn.debit(id)); out.writeLong(carriedIn.credit(id));
+                    out.writeLong(outD[id]); out.writeLong(outC[id]);
+                    out.writeLong(closeD[id]); out.writeLong(closeC[id]);
+                }
+                out.writeInt(descs.size());
+                for(String s : descs.keySet()) out.writeUTF(s);
+                int prev = 0;
+                for(int pos : positions){ out.writeInt(store.epochDay(pos) - prev); prev = store.epochDay(pos); }
+                for(int pos : positions) out.writeInt(local[store.debitId(pos)]);
+                for(int pos : positions) out.writeInt(local[store.creditId(pos)]);
+                for(int pos : positions) out.writeLong(store.amount(pos));
+                for(int pos : positions) out.writeInt(descs.get(store.description(pos)));
+                out.flush();
+                z.finish();
+                raw.flush();
+            } finally {
+                deflater.end();
+            }
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(AtomicMoveNotSupportedException ex){
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        for(int stale : new ArrayList<>(files.subMap(fromDay, false, throughDay, false).keySet())){
+            Files.deleteIfExists(files.remove(stale));
+            forget(stale);
+        }
+        files.put(throughDay, file);
+        forget(throughDay);
+        return file;
+    }
+
+    private static void localId(int[] local, List<Integer> names, int id){
+        if(local[id] < 0){
+            local[id] = names.size();
+            names.add(id);
+        }
+    }
+
+    private Path fileFor(int throughDay){
+        return dir.resolve(LocalDate.ofEpochDay(throughDay) + SUFFIX);
+    }
+
+    private void forget(int throughDay){
+        heads.remove(throughDay);
+        bodies.remove(throughDay);
+    }
+
+    // ---------------------- Read ----------------
+    /** True if the segment of (fromDay, throughDay] is on disk and holds {@code entries} entries. */
+    synchronized boolean has(int fromDay, int throughDay, int entries){
+        if(!files.containsKey(throughDay)) return false;
+        try {
+            Segment s = head(throughDay);
+            return s.fromDay == fromDay && s.carriedOut.entries - s.carriedIn.entries == entries;
+        } catch(IOException | UncheckedIOException ex){
+            return false;
+        }
+    }
+
+    /**
+     * Totals of every account at the end of {@code day}, a day inside the closed periods
+     * (before {@code closedThrough}): from the head of the segment ending that day, else by
+     * paging in the segment the day falls in.
+     */
+    synchronized Sums totalsThrough(int day, int closedThrough){
+        int through = covering(day, closedThrough);
+        Segment head = headOrFail(through);
+        if(day >= through) return head.carriedOut;
+        if(day <= head.fromDay) return head.carriedIn;
+        return body(through).through(day);
+    }
+
+    /** Totals of the closing entries of the periods closed within [fromDay, toDay]. */
+    synchronized Sums closingWithin(int fromDay, int toDay, int closedThrough){
+        int last = Math.min(toDay, closedThrough);
+        if(fromDay > last) return Sums.NONE;
+        long[] d = new long[AccountIds.size()], c = new long[d.length];
+        for(int through : files.subMap(fromDay, true, last, true).keySet()){
+            Sums s = headOrFail(through).closing;
+            for(int id = 0; id < s.debits.length && id < d.length; id++){
+                d[id] += s.debits[id];
+                c[id] += s.credits[id];
+            }
+        }
+        return new Sums(d, c, 0L);
+    }
+
+    /** The paged-in segments with entries dated within [fromDay, toDay], oldest first. */
+    synchronized List<Segment> segments(int fromDay, int toDay, int closedThrough){
+        List<Segment> out = new ArrayList<>();
+        if(fromDay > Math.min(toDay, closedThrough)) return out;
+        int last = covering(Math.min(toDay, closedThrough), closedThrough);
+        Integer first = files.ceilingKey(fromDay);
+        for(int through : files.subMap(first, true, last, true).keySet()) out.add(body(through));
+        return out;
+    }
+
+    /** One account's entries dated within [fromDay, toDay] of the closed periods, paged in, in date order. */
+    TransactionStore entriesOf(int id, int fromDay, int toDay, int closedThrough){
+        TransactionStore out = new TransactionStore();
+        for(Segment s : segments(fromDay, toDay, closedThrough)){
+            TransactionStore st = s.store();
+            for(int pos = 0; pos < st.size(); pos++){
+                int day = st.epochDay(pos);
+                if(day > toDay) break;
+                if(day < fromDay || (st.debitId(pos) != id && st.creditId(pos) != id)) continue;
+                out.add(day, st.debitId(pos), st.creditId(pos), st.amount(pos), st.description(pos));
+            }
+        }
+        return out;
+    }
+
+    private int covering(int day, int closedThrough){
+        Integer through = files.ceilingKey(day);
+        if(through == null || through > closedThrough){
+            throw new UncheckedIOException(new FileNotFoundException("No archived period covers "
+                    + LocalDate.ofEpochDay(day) + " in " + dir));
+        }
+        return through;
+    }
+
+    private Segment headOrFail(int through){
+        try { return head(through); }
+        catch(IOException ex){ throw new UncheckedIOException(ex); }
+    }
+
+    private Segment head(int through) throws IOException {
+        Segment s = heads.get(through);
+        if(s == null) heads.put(through, s = read(files.get(through), false));
+        return s;
+    }
+
+    private Segment body(int through){
+        SoftReference<Segment> ref = bodies.get(through);
+        Segment s = ref == null ? null : ref.get();
+        if(s != null) return s;
+        try { s = read(files.get(through), true); }
+        catch(IOException ex){ throw new UncheckedIOException(ex); }
+        bodies.put(through, new SoftReference<>(s));
+        return s;
+    }
+
+    private static Segment read(Path file, boolean withEntries) throws IOException {
+        try(InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)){
+            DataInputStream head = new DataInputStream(raw);
+            if(head.readInt() != MAGIC || head.readInt() != VERSION) throw new IOException("Not a period segment: " + file);
+            int fromDay = head.readInt(), throughDay = head.readInt();
+            long before = head.readLong();
+            int n = head.readInt();
+            Inflater inflater = new Inflater();
+            try {
+                DataInputStream in = new DataInputStream(new InflaterInputStream(raw, inflater, 1 << 16));
+                int[] ids = new int[in.readInt()];
+                for(int i = 0; i < ids.length; i++) ids[i] = AccountIds.intern(in.readUTF());
+                int size = AccountIds.size();
+                long[] inD = new long[size], inC = new long[size], outD = new long[size], outC = new long[size];
+                long[] closeD = new long[size], closeC = new long[size];
+                for(int id : ids){
+                    inD[id] = in.readLong(); inC[id] = in.readLong();
+                    outD[id] = in.readLong(); outC[id] = in.readLong();
+                    closeD[id] = in.readLong(); closeC[id] = in.readLong();
+                }
+                Sums carriedIn = new Sums(inD, inC, before), carriedOut = new Sums(outD, outC, before + n);
+                Sums closing = new Sums(closeD, closeC, 0L);
+                if(!withEntries) return new Segment(fromDay, throughDay, carriedIn, carriedOut, closing, null);
+
+                String[] descs = new String[in.readInt()];
+                for(int i = 0; i < descs.length; i++) descs[i] = in.readUTF();
+                int[] days = new int[n], debits = new int[n], credits = new int[n];
+                long[] amounts = new long[n];
+                int day = 0;
+                for(int i = 0; i < n; i++) days[i] = day += in.readInt();
+                for(int i = 0; i < n; i++) debits[i] = ids[in.readInt()];
+                for(int i = 0; i < n; i++) credits[i] = ids[in.readInt()];
+                for(int i = 0; i < n; i++) amounts[i] = in.readLong();
+                TransactionStore store = new TransactionStore();
+                store.ensureCapacity(n);
+                for(int i = 0; i < n; i++) store.add(days[i], debits[i], credits[i], amounts[i], descs[in.readInt()]);
+                return new Segment(fromDay, throughDay, carriedIn, carriedOut, closing, store);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+}
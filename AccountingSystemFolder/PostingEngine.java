@@ -0,0 +1,1069 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * PostingEngine
+ *
+ * Headless book of record behind AccountingSystem3_fixed.
+ * - post() applies a transaction as a delta to its debit and credit accounts only
+ * - All amounts and balances are long centavos (see Money)
+ * - Transactions are kept column-wise in a TransactionStore (primitive arrays, pooled
+ *   descriptions); transactions() is a List view over it for code that wants objects
+ * - Accounts and transactions refer to each other by AccountIds; balances and the raw
+ *   debit/credit totals sit in long[] arrays indexed by ID, so posting and replay are
+ *   array arithmetic, and a type change re-derives a balance without touching history
+ * - reverify() is the old full rebuild (zero every account and replay the book);
+ *   it is only run on demand and reports how many balances had drifted. It is split
+ *   into replay() (read-only, can run on a worker thread) and adopt() (installs it)
+ * - checkpoint() captures every open account's totals and the type totals at the current
+ *   log position (a BalanceCheckpoint); once one is in use, replay() starts from it and
+ *   only goes over the entries posted after it, and a log replay restores it in passing
+ * - If a TransactionLog is attached, every change is appended to it before it is applied
+ * - A per-account postings index (positions into the transaction list) is kept as
+ *   transactions arrive, so a ledger drill-down only visits that account's entries;
+ *   an account is "active" (has activity) when it has postings
+ * - Postings lists, and the book-wide byDate index, are ordered by date (then by
+ *   arrival); a back-dated entry is inserted in place, so activity over a date range
+ *   is two binary searches plus the entries inside the range
+ * - Each open account also has DailyTotals (Fenwick trees keyed by day), so its
+ *   balance as of any past date is O(log days), back-dated entries included
+ * - Running balance totals per AccountType are kept on every change, so the balance
+ *   sheet never has to walk the transactions
+ * - post() is safe to call from many threads at once. Posts share the book lock; the
+ *   append to the store (and log and byDate index) is one short critical section, and
+ *   each account's totals, postings and DailyTotals are guarded by a lock stripe chosen
+ *   by account ID. The two stripes of an entry are always taken lower index first, so
+ *   posts cannot deadlock, and posts to unrelated accounts run in parallel. Type totals
+ *   are LongAdders, which every post touches without contending on one cell
+ * - Account changes, reverify/adopt and restores take the book lock exclusively; so do
+ *   postBatch() (all-or-nothing, validated up front) and query(), for readers that want a
+ *   consistent view while other threads post
+ * - AccountListeners hear about each account opened, removed or retyped, so views of the
+ *   chart of accounts can change one row instead of being rebuilt
+ * - closePeriod() rolls revenue and expense into equity and moves every entry dated
+ *   through the closing date out to a PeriodArchive segment; what stays in memory is each
+ *   account's archived totals (its opening) and the open-period entries. Dates inside a
+ *   closed period are answered from the archive, and can no longer be posted to
+ */
+class PostingEngine {
+
+    private final Map<String, AccountingSystem3_fixed.Account> accounts = new LinkedHashMap<>();
+    private final TransactionStore transactions = new TransactionStore();
+    // per-account state, indexed by AccountIds (grown on demand, zero for unused IDs)
+    private AccountingSystem3_fixed.Account[] byId = new AccountingSystem3_fixed.Account[64]; // null unless open
+    private long[] balances = new long[64];
+    private long[] debitTotals = new long[64];
+    private long[] creditTotals = new long[64];
+    private Postings[] postingsById = new Postings[64];
+    private final Postings byDate = new Postings(); // every entry, date order
+    private DailyTotals[] dailyById = new DailyTotals[64]; // as-of-date totals of open accounts
+    private final LongAdder[] typeTotals = newTypeTotals(); // sum of balances per type
+    private TransactionLog log; // optional write-ahead log; null keeps the book in memory only
+    private volatile BalanceCheckpoint checkpoint; // latest one written or restored; seeds replay()
+    // period close: entries dated through closedThrough are archived, their raw totals kept here
+    private PeriodArchive archive; // null: periods can't be closed
+    private int closedThrough = Integer.MIN_VALUE;
+    private long[] openingDebits = new long[64], openingCredits = new long[64];
+    private long archivedEntries;
+    private long compactedAt = -1L; // log position of the last close; older checkpoints don't fit the store
+
+    // concurrency (see class comment)
+    private static final int STRIPES = 64; // power of two
+    private final StampedLock bookLock = new StampedLock(); // not reentrant: *Locked helpers assume it is held
+    private final Object appendLock = new Object();
+    private final Object[] stripes = new Object[STRIPES];
+    {
+        for(int i = 0; i < STRIPES; i++) stripes[i] = new Object();
+    }
+
+    private final Map<String, AccountingSystem3_fixed.Account> accountsView = Collections.unmodifiableMap(accounts);
+    private final List<AccountListener> accountListeners = new CopyOnWriteArrayList<>();
+
+    /** Told about each account opened, removed or retyped; called on the changing thread, with the book locked. */
+    interface AccountListener {
+        void accountOpened(AccountingSystem3_fixed.Account a);
+        void accountRemoved(AccountingSystem3_fixed.Account a);
+        default void accountRetyped(AccountingSystem3_fixed.Account a){}
+    }
+
+    void addAccountListener(AccountListener l){ accountListeners.add(l); }
+
+    void removeAccountListener(AccountListener l){ accountListeners.remove(l); }
+
+    /** Starts logging changes; attach after replaying the log so replayed entries are not re-appended. */
+    void attachLog(TransactionLog log){
+        synchronized(appendLock){ this.log = log; }
+    }
+
+    TransactionLog log(){ return log; }
+
+    /** Where closed periods go; attach before replaying a log that may close one. */
+    void attachArchive(PeriodArchive archive){ this.archive = archive; }
+
+    PeriodArchive archive(){ return archive; }
+
+    // ---------------------- Accounts ----------------
+    Map<String, AccountingSystem3_fixed.Account> accounts(){ return accountsView; }
+
+    /** Opens a new account; returns false (and changes nothing) if the name is taken. */
+    boolean openAccount(String name, AccountingSystem3_fixed.AccountType type){
+        long stamp = bookLock.writeLock();
+        try { return openAccountLocked(name, type); }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    private boolean openAccountLocked(String name, AccountingSystem3_fixed.AccountType type){
+        if(accounts.containsKey(name)) return false;
+        if(log != null) log.appendOpenAccount(name, type);
+        applyOpen(name, type);
+        return true;
+    }
+
+    private void applyOpen(String name, AccountingSystem3_fixed.AccountType type){
+        AccountingSystem3_fixed.Account a = new AccountingSystem3_fixed.Account(name, type);
+        ensureId(a.id);
+        accounts.put(name, a);
+        byId[a.id] = a;
+        for(AccountListener l : accountListeners) l.accountOpened(a);
+    }
+
+    /**
+     * Hybrid type detection for a typed or imported name such as "Cash [ASSET]": opens the
+     * canonical account if missing ([TYPE] token, else keyword guess, else ASSET), or applies
+     * an explicit [TYPE] token to the existing account. Returns true if an account was opened.
+     */
+    boolean ensureAccount(String rawName){
+        if(rawName == null) return false;
+        long stamp = bookLock.writeLock();
+        try { return ensureAccountLocked(rawName); }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    private boolean ensureAccountLocked(String rawName){
+        Map<String, AccountChange> plan = new LinkedHashMap<>();
+        planAccount(rawName, plan);
+        for(AccountChange change : plan.values()){
+            if(change.open) return openAccountLocked(change.name, change.type);
+            retypeLocked(change.name, change.type);
+        }
+        return false;
+    }
+
+    /** An account ensureAccount() opens, or retypes to an explicit [TYPE] token. */
+    private static final class AccountChange {
+        final String name;
+        final boolean open;
+        AccountingSystem3_fixed.AccountType type;
+
+        AccountChange(String name, AccountingSystem3_fixed.AccountType type, boolean open){
+            this.name = name;
+            this.type = type;
+            this.open = open;
+        }
+    }
+
+    /**
+     * Adds what ensureAccount(rawName) would change to {@code plan} (by canonical name),
+     * without changing the book; an account already in the plan takes a later [TYPE] token.
+     */
+    private void planAccount(String rawName, Map<String, AccountChange> plan){
+        String trimmed = rawName.trim();
+        AccountingSystem3_fixed.AccountType bracket = AccountingSystem3_fixed.detectTypeFromBracket(trimmed);
+        String canonical = AccountingSystem3_fixed.canonicalize(trimmed);
+        AccountChange planned = plan.get(canonical);
+
+        if(planned == null && !accounts.containsKey(canonical)){
+            AccountingSystem3_fixed.AccountType guessed = bracket != AccountingSystem3_fixed.AccountType.UNKNOWN
+                    ? bracket : AccountingSystem3_fixed.detectTypeByKeyword(canonical);
+            if(guessed == AccountingSystem3_fixed.AccountType.UNKNOWN) guessed = AccountingSystem3_fixed.AccountType.ASSET; // safe fallback
+            plan.put(canonical, new AccountChange(canonical, guessed, true));
+            return;
+        }
+        // if bracket present and differs, update the stored account type
+        if(bracket == AccountingSystem3_fixed.AccountType.UNKNOWN) return;
+        if(planned != null) planned.type = bracket;
+        else if(accounts.get(canonical).type != bracket) plan.put(canonical, new AccountChange(canonical, bracket, false));
+    }
+
+    void removeAccount(String name){
+        long stamp = bookLock.writeLock();
+        try {
+            if(!accounts.containsKey(name)) return;
+            if(log != null) log.appendRemoveAccount(name);
+            AccountingSystem3_fixed.Account a = accounts.remove(name);
+            typeTotals[a.type.ordinal()].add(-balances[a.id]);
+            byId[a.id] = null;
+            balances[a.id] = 0L; debitTotals[a.id] = 0L; creditTotals[a.id] = 0L;
+            dailyById[a.id] = null;
+            for(AccountListener l : accountListeners) l.accountRemoved(a);
+        } finally { bookLock.unlockWrite(stamp); }
+    }
+
+    /** Changes an account's type and re-derives its balance from the stored totals. */
+    void retype(String name, AccountingSystem3_fixed.AccountType type){
+        long stamp = bookLock.writeLock();
+        try { retypeLocked(name, type); }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    private void retypeLocked(String name, AccountingSystem3_fixed.AccountType type){
+        AccountingSystem3_fixed.Account a = accounts.get(name);
+        if(a == null || a.type == type) return;
+        if(log != null) log.appendRetype(name, type);
+        applyRetype(a, type);
+    }
+
+    private void applyRetype(AccountingSystem3_fixed.Account a, AccountingSystem3_fixed.AccountType type){
+        if(a.type == type) return;
+        typeTotals[a.type.ordinal()].add(-balances[a.id]);
+        a.type = type;
+        balances[a.id] = balanceOf(type, debitTotals[a.id], creditTotals[a.id]);
+        typeTotals[type.ordinal()].add(balances[a.id]);
+        for(AccountListener l : accountListeners) l.accountRetyped(a);
+    }
+
+    // ---------------------- Posting ----------------
+    /** Read-only List view of the book; builds a Transaction per get(), see store() for scans. */
+    List<AccountingSystem3_fixed.Transaction> transactions(){ return transactions.asList(); }
+
+    /** The columnar store behind the book (read it, don't append to it). */
+    TransactionStore store(){ return transactions; }
+
+    /**
+     * Appends a transaction and applies it to the two affected balances, O(1). Thread-safe:
+     * concurrent posts only wait for each other on the append and on shared lock stripes.
+     * Returns the log sequence number of its record, for TransactionLog.awaitWritten()
+     * (0 without a log).
+     */
+    long post(AccountingSystem3_fixed.Transaction tx){
+        int d = tx.debitId, c = tx.creditId;
+        long seq = 0L;
+        long stamp = bookLock.readLock();
+        try {
+            if(tx.epochDay <= closedThrough) throw new IllegalArgumentException(tx.date() + " is in a closed period (" + closedNote() + ")");
+            if(tx.description.length() > AccountingSystem3_fixed.Transaction.MAX_DESCRIPTION) throw new IllegalArgumentException(descriptionTooLong());
+            if(Math.max(d, c) >= byId.length){ // first posting to a newly interned name
+                bookLock.unlockRead(stamp);
+                grow(Math.max(d, c));
+                stamp = bookLock.readLock();
+            }
+            int pos;
+            synchronized(appendLock){
+                if(log != null) seq = log.appendPost(tx); // same order as the store
+                pos = transactions.add(tx);
+                byDate.add(pos, tx.epochDay);
+            }
+            int sd = d & (STRIPES - 1), sc = c & (STRIPES - 1);
+            synchronized(stripes[Math.min(sd, sc)]){
+                synchronized(stripes[Math.max(sd, sc)]){
+                    // from tx, not the store: its columns are only safe to read under appendLock
+                    postingsFor(d).add(pos, tx.epochDay);
+                    if(c != d) postingsFor(c).add(pos, tx.epochDay);
+                    apply(tx.epochDay, d, c, tx.amount);
+                }
+            }
+        } finally { bookLock.unlockRead(stamp); }
+        return seq;
+    }
+
+    static String descriptionTooLong(){
+        return "description longer than " + AccountingSystem3_fixed.Transaction.MAX_DESCRIPTION + " characters";
+    }
+
+    /**
+     * Posts a whole batch (e.g. an import) in one pass with posting paused, so its entries
+     * are contiguous; returns the position of the first. Unlike postBatch() it does no
+     * account checks (replay and preloads have done them), only the closed-period one,
+     * for every entry before any is posted.
+     */
+    int postAll(List<AccountingSystem3_fixed.Transaction> batch){
+        long stamp = bookLock.writeLock();
+        try {
+            for(AccountingSystem3_fixed.Transaction tx : batch){
+                if(tx.epochDay <= closedThrough) throw new IllegalArgumentException(tx.date() + " is in a closed period (" + closedNote() + ")");
+            }
+            int first = transactions.size();
+            transactions.ensureCapacity(first + batch.size());
+            for(AccountingSystem3_fixed.Transaction tx : batch){
+                ensureId(Math.max(tx.debitId, tx.creditId));
+                if(log != null) log.appendPost(tx);
+                int pos = transactions.add(tx);
+                index(pos, tx.epochDay, tx.debitId, tx.creditId);
+                apply(tx.epochDay, tx.debitId, tx.creditId, tx.amount);
+            }
+            return first;
+        } finally { bookLock.unlockWrite(stamp); }
+    }
+
+    /**
+     * Posts {@code entries} all-or-nothing. Everything is checked before the book changes:
+     * amount above zero, debit and credit accounts different, and both open, or opened by
+     * {@code accountNames} (raw names such as "Cash [ASSET]", which go through
+     * ensureAccount's rules first). If any entry fails, BatchRejected lists the problems and
+     * nothing is opened, logged or posted. Otherwise the batch and the accounts it opens,
+     * all between batch markers (replay applies them whole or not at all), are queued to the log
+     * in one append, which throws before anything changes if the log has failed; only then
+     * are they applied, with posting paused. Callers refresh their views once.
+     * Returns the log sequence number of the batch's last record, for
+     * TransactionLog.awaitWritten() before acknowledging it (0 without a log).
+     */
+    long postBatch(Collection<String> accountNames, List<AccountingSystem3_fixed.Transaction> entries){
+        long stamp = bookLock.writeLock();
+        try { return postBatchLocked(accountNames, entries); }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    private long postBatchLocked(Collection<String> accountNames, List<AccountingSystem3_fixed.Transaction> entries){
+        Posted posted = postBatchesLocked(Collections.singletonList(accountNames), Collections.singletonList(entries));
+        if(posted.rejected[0] != null) throw posted.rejected[0];
+        return posted.seq;
+    }
+
+    /**
+     * postBatch() for several independent batches at once, e.g. the requests a group commit
+     * gathered: each is checked on its own, as if the ones accepted before it were already
+     * posted, and a failing one is refused alone. The accepted ones and the accounts they
+     * open go to the log in one append, between one pair of batch markers (none of them is
+     * answered before all are written), and are then applied in order, with posting paused.
+     * Throws, changing nothing, if the log has failed.
+     */
+    Posted postBatches(List<? extends Collection<String>> accountNames, List<? extends List<AccountingSystem3_fixed.Transaction>> entries){
+        long stamp = bookLock.writeLock();
+        try { return postBatchesLocked(accountNames, entries); }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    /** What postBatches() did: the log sequence number to await, and which batches it refused. */
+    static final class Posted {
+        final long seq; // 0 without a log
+        final BatchRejected[] rejected; // per batch, null where it was posted
+
+        Posted(long seq, BatchRejected[] rejected){
+            this.seq = seq;
+            this.rejected = rejected;
+        }
+    }
+
+    private Posted postBatchesLocked(List<? extends Collection<String>> accountNames, List<? extends List<AccountingSystem3_fixed.Transaction>> entries){
+        BatchRejected[] rejected = new BatchRejected[entries.size()];
+        List<List<AccountingSystem3_fixed.Transaction>> accepted = new ArrayList<>();
+        Set<Integer> opened = new HashSet<>(); // by the batches accepted so far
+        Map<String, AccountChange> plan = new LinkedHashMap<>();
+        for(int b = 0; b < entries.size(); b++){
+            Set<Integer> opening = new HashSet<>(opened);
+            for(String raw : accountNames.get(b)){
+                if(raw != null) opening.add(AccountIds.intern(AccountingSystem3_fixed.canonicalize(raw)));
+            }
+            rejected[b] = check(entries.get(b), opening);
+            if(rejected[b] != null) continue;
+            opened = opening;
+            for(String raw : accountNames.get(b)){
+                if(raw != null) planAccount(raw, plan);
+            }
+            accepted.add(entries.get(b));
+        }
+        long seq = 0L;
+        // the whole change goes to the log in one piece before the book is touched, a failed log
+        // refusing it here; the accounts sit inside the batch markers with the posts, so replay
+        // drops them with a batch cut off by a crash
+        int posts = 0;
+        for(List<AccountingSystem3_fixed.Transaction> batch : accepted) posts += batch.size();
+        if(log != null && (posts > 0 || !plan.isEmpty())){
+            TransactionLog.Records records = log.records();
+            records.batchStart(posts);
+            for(AccountChange change : plan.values()){
+                if(change.open) records.openAccount(change.name, change.type);
+                else records.retype(change.name, change.type);
+            }
+            for(List<AccountingSystem3_fixed.Transaction> batch : accepted){
+                for(AccountingSystem3_fixed.Transaction tx : batch) records.post(tx);
+            }
+            seq = log.append(records.batchEnd());
+        }
+        for(AccountChange change : plan.values()){
+            if(change.open) applyOpen(change.name, change.type);
+            else applyRetype(accounts.get(change.name), change.type);
+        }
+        for(List<AccountingSystem3_fixed.Transaction> batch : accepted){
+            transactions.ensureCapacity(transactions.size() + batch.size());
+            for(AccountingSystem3_fixed.Transaction tx : batch){
+                int pos = transactions.add(tx);
+                index(pos, tx.epochDay, tx.debitId, tx.creditId);
+                apply(tx.epochDay, tx.debitId, tx.creditId, tx.amount);
+            }
+        }
+        return new Posted(seq, rejected);
+    }
+
+    /** Every problem with {@code entries}, as a BatchRejected, or null if there are none. */
+    private BatchRejected check(List<AccountingSystem3_fixed.Transaction> entries, Set<Integer> opening){
+        int[] indexes = new int[BatchRejected.MAX_LISTED];
+        List<String> reasons = new ArrayList<>();
+        int rejected = 0;
+        for(int i = 0; i < entries.size(); i++){
+            String problem = checkEntry(entries.get(i), opening);
+            if(problem == null) continue;
+            if(rejected++ < BatchRejected.MAX_LISTED){
+                indexes[reasons.size()] = i;
+                reasons.add(problem);
+            }
+        }
+        return rejected == 0 ? null : new BatchRejected(rejected, entries.size(), Arrays.copyOf(indexes, reasons.size()), reasons);
+    }
+
+    private String checkEntry(AccountingSystem3_fixed.Transaction tx, Set<Integer> opening){
+        if(tx == null) return "missing";
+        if(tx.amount <= 0) return "amount must be greater than zero";
+        if(tx.debitId == tx.creditId) return "debit and credit are the same account";
+        if(tx.description.length() > AccountingSystem3_fixed.Transaction.MAX_DESCRIPTION) return descriptionTooLong();
+        if(tx.epochDay <= closedThrough) return "dated in a closed period (" + closedNote() + ")";
+        if(!isOpen(tx.debitId) && !opening.contains(tx.debitId)) return "no account '" + AccountIds.name(tx.debitId) + "'";
+        if(!isOpen(tx.creditId) && !opening.contains(tx.creditId)) return "no account '" + AccountIds.name(tx.creditId) + "'";
+        return null;
+    }
+
+    private boolean isOpen(int id){ return id >= 0 && id < byId.length && byId[id] != null; }
+
+    /** A postBatch() that was refused; the book is unchanged. */
+    static final class BatchRejected extends IllegalArgumentException {
+        static final int MAX_LISTED = 20;
+        final int rejected, size;
+        final List<String> problems; // the first MAX_LISTED, as "entry <index>: <reason>"
+        final int[] indexes; // their entry indexes in the batch
+        final List<String> reasons; // and their reasons
+
+        BatchRejected(int rejected, int size, int[] indexes, List<String> reasons){
+            super(rejected + " of " + size + " entries rejected; nothing was posted. " + String.join("; ", problems(indexes, reasons)));
+            this.rejected = rejected;
+            this.size = size;
+            this.indexes = indexes;
+            this.reasons = Collections.unmodifiableList(reasons);
+            this.problems = Collections.unmodifiableList(problems(indexes, reasons));
+        }
+
+        private static List<String> problems(int[] indexes, List<String> reasons){
+            List<String> out = new ArrayList<>(reasons.size());
+            for(int k = 0; k < reasons.size(); k++) out.add("entry " + indexes[k] + ": " + reasons.get(k));
+            return out;
+        }
+    }
+
+    /**
+     * Runs {@code reader} with posting paused, for a consistent multi-part read (e.g. a
+     * ledger or a set of balances) while other threads post. The reader must not post or
+     * change accounts (the lock is not reentrant).
+     */
+    <T> T query(Supplier<T> reader){
+        long stamp = bookLock.writeLock();
+        try { return reader.get(); }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    // per-account arrays only grow with the book lock held exclusively
+    private void grow(int id){
+        long stamp = bookLock.writeLock();
+        try { ensureId(id); }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    private static LongAdder[] newTypeTotals(){
+        LongAdder[] t = new LongAdder[AccountingSystem3_fixed.AccountType.values().length];
+        for(int i = 0; i < t.length; i++) t[i] = new LongAdder();
+        return t;
+    }
+
+    private void apply(int day, int d, int c, long amount){
+        AccountingSystem3_fixed.Account da = d < byId.length ? byId[d] : null;
+        AccountingSystem3_fixed.Account ca = c < byId.length ? byId[c] : null;
+        if(da != null){
+            long delta = debitDelta(da.type, amount);
+            debitTotals[d] += amount;
+            balances[d] += delta;
+            typeTotals[da.type.ordinal()].add(delta);
+            daily(d).add(day, amount, 0L);
+        }
+        if(ca != null){
+            long delta = creditDelta(ca.type, amount);
+            creditTotals[c] += amount;
+            balances[c] += delta;
+            typeTotals[ca.type.ordinal()].add(delta);
+            daily(c).add(day, 0L, amount);
+        }
+    }
+
+    /** Records entry {@code pos} under both of its accounts (book lock held exclusively). */
+    private void index(int pos, int day, int d, int c){
+        postingsFor(d).add(pos, day);
+        if(c != d) postingsFor(c).add(pos, day);
+        byDate.add(pos, day);
+    }
+
+    /**
+     * Rebuild: zeroes every account and replays the transactions in insertion order (those
+     * after the checkpoint in use, if any). Returns the number of accounts whose
+     * incrementally maintained balance disagreed with the replayed one (0 means the book
+     * was consistent).
+     */
+    int reverify(){
+        return adopt(replay(transactions.size()));
+    }
+
+    /**
+     * The replay half of reverify(): per-account totals recomputed from the first
+     * {@code size} entries, or taken from the checkpoint in use and brought up to
+     * {@code size} from there. It only reads the store (a fixed prefix of it), so the UI
+     * runs it on a worker thread and hands the result to adopt() on the EDT.
+     */
+    Replay replay(int size){
+        BalanceCheckpoint cp = checkpoint;
+        if(cp != null && cp.entries > size) cp = null;
+        Replay r = new Replay(size, Math.max(AccountIds.size(), 1), cp, closedThrough, openingDebits, openingCredits);
+        for(int pos = r.from; pos < size; pos++){
+            r.add(transactions.epochDay(pos), transactions.debitId(pos), transactions.creditId(pos), transactions.amount(pos));
+        }
+        return r;
+    }
+
+    /**
+     * Installs a replay as the book's totals, after catching it up with entries posted
+     * since it was taken; only open accounts keep theirs. Returns the drift count, as
+     * reverify() does.
+     */
+    int adopt(Replay r){
+        long stamp = bookLock.writeLock();
+        try { return adoptLocked(r); }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    private int adoptLocked(Replay r){
+        for(int pos = r.size; pos < transactions.size(); pos++){
+            r.add(transactions.epochDay(pos), transactions.debitId(pos), transactions.creditId(pos), transactions.amount(pos));
+        }
+        r.ensureId(byId.length - 1);
+        for(LongAdder t : typeTotals) t.reset();
+        int drifted = 0;
+        for(int id = 0; id < byId.length; id++){
+            AccountingSystem3_fixed.Account a = byId[id];
+            if(a == null){
+                balances[id] = 0L; debitTotals[id] = 0L; creditTotals[id] = 0L; dailyById[id] = null;
+                continue;
+            }
+            long balance = balanceOf(a.type, r.debits[id], r.credits[id]);
+            if(balance != balances[id]) drifted++;
+            balances[id] = balance;
+            debitTotals[id] = r.debits[id];
+            creditTotals[id] = r.credits[id];
+            if(r.daily != null) dailyById[id] = r.daily[id]; // else the kept ones stand (see Replay)
+            typeTotals[a.type.ordinal()].add(balance);
+        }
+        return drifted;
+    }
+
+    /**
+     * Replayed debit/credit totals and DailyTotals by account ID (see replay()). One seeded
+     * from a checkpoint starts at its totals and rebuilds no DailyTotals (the entries before
+     * it are not read); the book's own are kept. Otherwise it starts at the openings left by
+     * period closes, as one lump on the closing date.
+     */
+    static final class Replay {
+        private final int size; // entries covered
+        private final int from; // first entry replayed (the checkpoint's entry count, or 0)
+        private long[] debits, credits;
+        private DailyTotals[] daily; // null when seeded from a checkpoint
+
+        private Replay(int size, int ids, BalanceCheckpoint seed, int closedThrough, long[] openingDebits, long[] openingCredits){
+            this.size = size;
+            debits = new long[ids]; credits = new long[ids];
+            if(seed == null){
+                from = 0;
+                daily = new DailyTotals[ids];
+                for(int id = 0; id < openingDebits.length; id++){
+                    if(openingDebits[id] == 0L && openingCredits[id] == 0L) continue;
+                    ensureId(id);
+                    debits[id] = openingDebits[id];
+                    credits[id] = openingCredits[id];
+                    daily[id] = new DailyTotals();
+                    daily[id].add(closedThrough, openingDebits[id], openingCredits[id]);
+                }
+                return;
+            }
+            from = seed.entries;
+            for(int i = 0; i < seed.accounts(); i++){
+                int id = AccountIds.intern(seed.names[i]);
+                ensureId(id);
+                debits[id] = seed.debits[i];
+                credits[id] = seed.credits[i];
+            }
+        }
+
+        /** First entry read from the store: the checkpoint's entry count, or 0. */
+        int from(){ return from; }
+
+        boolean fromCheckpoint(){ return daily == null; }
+
+        private void add(int day, int d, int c, long amount){
+            ensureId(Math.max(d, c));
+            debits[d] += amount;
+            credits[c] += amount;
+            if(daily == null) return;
+            if(daily[d] == null) daily[d] = new DailyTotals();
+            daily[d].add(day, amount, 0L);
+            if(daily[c] == null) daily[c] = new DailyTotals();
+            daily[c].add(day, 0L, amount);
+        }
+
+        private void ensureId(int id){
+            if(id < debits.length) return;
+            int n = Math.max(debits.length * 2, id + 1);
+            debits = Arrays.copyOf(debits, n);
+            credits = Arrays.copyOf(credits, n);
+            if(daily != null) daily = Arrays.copyOf(daily, n);
+        }
+    }
+
+    // ---------------------- Checkpoints ----------------
+    /**
+     * The totals of every open account and of each type, as of the log's current end;
+     * taken with posting paused (a pass over the accounts, not the transactions).
+     */
+    BalanceCheckpoint checkpoint(){
+        long stamp = bookLock.writeLock();
+        try {
+            int n = accounts.size(), i = 0;
+            String[] names = new String[n];
+            AccountingSystem3_fixed.AccountType[] types = new AccountingSystem3_fixed.AccountType[n];
+            long[] debits = new long[n], credits = new long[n];
+            for(AccountingSystem3_fixed.Account a : accounts.values()){
+                names[i] = a.name; types[i] = a.type;
+                debits[i] = debitTotals[a.id]; credits[i] = creditTotals[a.id];
+                i++;
+            }
+            long[] byType = new long[typeTotals.length];
+            for(int t = 0; t < byType.length; t++) byType[t] = typeTotals[t].sum();
+            return new BalanceCheckpoint(log == null ? -1L : log.appendedPosition(), transactions.size(),
+                    names, types, debits, credits, byType);
+        } finally { bookLock.unlockWrite(stamp); }
+    }
+
+    /**
+     * Makes {@code cp} (one taken from this book and saved) the starting point of replay(),
+     * unless a period close has compacted the store since it was taken.
+     */
+    void useCheckpoint(BalanceCheckpoint cp){
+        long stamp = bookLock.writeLock();
+        try { if(cp.logPosition >= compactedAt) checkpoint = cp; }
+        finally { bookLock.unlockWrite(stamp); }
+    }
+
+    BalanceCheckpoint latestCheckpoint(){ return checkpoint; }
+
+    // ---------------------- Period close ----------------
+    static final String CLOSING_ENTRY = "Closing entry";
+
+    /**
+     * Closes the books through {@code throughDay}. Each revenue and expense account's balance
+     * at that date is rolled into the equity account {@code equityName} by a closing entry
+     * dated that day (all posted as one batch). Then every entry dated through it is written
+     * to a PeriodArchive segment, logged as archived and dropped from memory; the accounts
+     * keep its totals as their openings. Runs with posting paused. If the segment can't be
+     * written the closing entries stand, and nothing is archived.
+     */
+    PeriodClose closePeriod(int throughDay, String equityName) throws IOException {
+        long stamp = bookLock.writeLock();
+        try {
+            if(archive == null) throw new IllegalStateException("No period archive is attached");
+            if(throughDay <= closedThrough) throw new IllegalArgumentException("The books are already " + closedNote());
+            AccountingSystem3_fixed.Account equity = accounts.get(equityName);
+            if(equity == null || equity.type != AccountingSystem3_fixed.AccountType.EQUITY){
+                throw new IllegalArgumentException("'" + equityName + "' is not an equity account");
+            }
+            List<AccountingSystem3_fixed.Transaction> closing = new ArrayList<>();
+            for(AccountingSystem3_fixed.Account a : accounts.values()){
+                boolean revenue = a.type == AccountingSystem3_fixed.AccountType.REVENUE;
+                if(!revenue && a.type != AccountingSystem3_fixed.AccountType.EXPENSE) continue;
+                long balance = balanceAsOf(a, throughDay);
+                if(balance == 0L) continue;
+                // take the balance off its normal side (credit for revenue, debit for expense)
+                boolean debitIt = revenue == balance > 0;
+                closing.add(new AccountingSystem3_fixed.Transaction(throughDay, CLOSING_ENTRY,
+                        debitIt ? a.id : equity.id, debitIt ? equity.id : a.id, Math.abs(balance)));
+            }
+            if(!closing.isEmpty()) postBatchLocked(Collections.emptyList(), closing);
+            int archived = archiveLocked(throughDay);
+            return new PeriodClose(throughDay, closing.size(), archived);
+        } finally { bookLock.unlockWrite(stamp); }
+    }
+
+    /** What closePeriod() did. */
+    static final class PeriodClose {
+        final int throughDay;
+        final int closingEntries; // revenue and expense balances rolled into equity
+        final int archived;       // entries moved out to the archive
+
+        PeriodClose(int throughDay, int closingEntries, int archived){
+            this.throughDay = throughDay; this.closingEntries = closingEntries; this.archived = archived;
+        }
+    }
+
+    /** A period close met in log replay (its closing entries were replayed before it). */
+    void archiveThrough(int throughDay) throws IOException {
+        long stamp = bookLock.writeLock();
+        try {
+            if(archive == null) throw new IllegalStateException("The log closes a period but no period archive is attached");
+            archiveLocked(throughDay);
+        } finally { bookLock.unlockWrite(stamp); }
+    }
+
+    // the segment is written (unless an earlier, interrupted close left it) before anything changes
+    private int archiveLocked(int throughDay) throws IOException {
+        int n = byDate.firstOnOrAfter(throughDay + 1);
+        int[] closed = byDate.copy(0, n);
+        if(!archive.has(closedThrough, throughDay, n)){
+            archive.write(closedThrough, throughDay, transactions, closed,
+                    new PeriodArchive.Sums(openingDebits, openingCredits, archivedEntries));
+        }
+        if(log != null) log.appendClosePeriod(throughDay);
+        evictLocked(throughDay, closed);
+        return n;
+    }
+
+    private void evictLocked(int throughDay, int[] closed){
+        if(closed.length > 0){
+            boolean[] drop = new boolean[transactions.size()];
+            for(int pos : closed){
+                drop[pos] = true;
+                openingDebits[transactions.debitId(pos)] += transactions.amount(pos);
+                openingCredits[transactions.creditId(pos)] += transactions.amount(pos);
+            }
+            archivedEntries += closed.length;
+            int[] remap = transactions.compact(drop);
+            byDate.remap(remap);
+            for(Postings p : postingsById){
+                if(p != null) p.remap(remap);
+            }
+        }
+        closedThrough = throughDay;
+        checkpoint = null; // its entry count is from before the compaction
+        compactedAt = log == null ? -1L : log.appendedPosition();
+    }
+
+    /** Last closed day (Integer.MIN_VALUE if no period was closed). */
+    int closedThrough(){ return closedThrough; }
+
+    long archivedEntries(){ return archivedEntries; }
+
+    private String closedNote(){ return "closed through " + transactions.dateText(closedThrough); }
+
+    /** Balance of {@code a} carried over from the closed periods. */
+    long openingBalance(AccountingSystem3_fixed.Account a){
+        return balanceOf(a.type, openingDebit(a.id), openingCredit(a.id));
+    }
+
+    long openingDebit(int id){ return id < openingDebits.length ? openingDebits[id] : 0L; }
+
+    long openingCredit(int id){ return id < openingCredits.length ? openingCredits[id] : 0L; }
+
+    /**
+     * What period closes took out of the store, for readers that add it back (ReportEngine).
+     * Take it inside query(), together with the store size it goes with.
+     */
+    Opening opening(){
+        return new Opening(closedThrough, new PeriodArchive.Sums(openingDebits.clone(), openingCredits.clone(), archivedEntries), archive);
+    }
+
+    /** Openings by account ID as of the last close, and the archive behind them. */
+    static final class Opening {
+        final int closedThrough;           // Integer.MIN_VALUE: nothing closed
+        final PeriodArchive.Sums totals;   // raw debit/credit totals through closedThrough
+        final PeriodArchive archive;
+
+        Opening(int closedThrough, PeriodArchive.Sums totals, PeriodArchive archive){
+            this.closedThrough = closedThrough; this.totals = totals; this.archive = archive;
+        }
+    }
+
+    /** One account's archived entries dated within [fromDay, toDay], paged in from the archive. */
+    TransactionStore archivedPostings(int id, int fromDay, int toDay){
+        return closedArchive().entriesOf(id, fromDay, toDay, closedThrough);
+    }
+
+    private PeriodArchive.Sums closedTotals(int day){
+        return closedArchive().totalsThrough(day, closedThrough);
+    }
+
+    private PeriodArchive closedArchive(){
+        if(archive == null) throw new IllegalStateException("The books are " + closedNote() + " and no period archive is attached");
+        return archive;
+    }
+
+    // ---------------------- Bulk restore (snapshots) ----------------
+    // load path: runs on one thread before anything else posts, so it takes no locks
+    /** Registers an account with already-computed totals; not logged (the snapshot is the record). */
+    void restoreAccount(String name, AccountingSystem3_fixed.AccountType type, long debitTotal, long creditTotal){
+        AccountingSystem3_fixed.Account a = new AccountingSystem3_fixed.Account(name, type);
+        ensureId(a.id);
+        accounts.put(name, a);
+        byId[a.id] = a;
+        debitTotals[a.id] = debitTotal;
+        creditTotals[a.id] = creditTotal;
+        balances[a.id] = balanceOf(type, debitTotal, creditTotal);
+        typeTotals[type.ordinal()].add(balances[a.id]);
+        for(AccountListener l : accountListeners) l.accountOpened(a);
+    }
+
+    /** Appends and indexes an entry whose effect is already in the restored account totals. */
+    void restoreTransaction(int epochDay, int debitId, int creditId, long amount, String description){
+        index(transactions.add(epochDay, debitId, creditId, amount, description), epochDay, debitId, creditId);
+        if(byId[debitId] != null) daily(debitId).add(epochDay, amount, 0L);
+        if(byId[creditId] != null) daily(creditId).add(epochDay, 0L, amount);
+    }
+
+    /**
+     * Installs a checkpoint's totals, on reaching its position in a log replay whose posts
+     * were restored without applying them. Returns false (changing nothing) if the book
+     * there does not match it: other entry count, or other open accounts or types.
+     */
+    boolean restoreTotals(BalanceCheckpoint cp){
+        if(cp.entries != transactions.size() || cp.accounts() != accounts.size()) return false;
+        for(int i = 0; i < cp.accounts(); i++){
+            AccountingSystem3_fixed.Account a = accounts.get(cp.names[i]);
+            if(a == null || a.type != cp.types[i]) return false;
+        }
+        for(LongAdder t : typeTotals) t.reset();
+        for(int i = 0; i < cp.accounts(); i++){
+            AccountingSystem3_fixed.Account a = accounts.get(cp.names[i]);
+            debitTotals[a.id] = cp.debits[i];
+            creditTotals[a.id] = cp.credits[i];
+            balances[a.id] = cp.balance(i);
+            typeTotals[a.type.ordinal()].add(balances[a.id]);
+        }
+        checkpoint = cp;
+        return true;
+    }
+
+    /** Marks the book closed through {@code throughDay}, {@code archived} entries gone to the archive. */
+    void restoreClosed(int throughDay, long archived){
+        closedThrough = throughDay;
+        archivedEntries = archived;
+    }
+
+    /** An account's archived totals; an open account's DailyTotals start from them. */
+    void restoreOpening(int id, long debits, long credits){
+        ensureId(id);
+        openingDebits[id] = debits;
+        openingCredits[id] = credits;
+        if(byId[id] != null) daily(id).add(closedThrough, debits, credits);
+    }
+
+    void ensureCapacity(int transactionCount){
+        synchronized(appendLock){ transactions.ensureCapacity(transactionCount); }
+    }
+
+    // ---------------------- Balances ----------------
+    long balance(AccountingSystem3_fixed.Account a){ return balances[a.id]; }
+
+    long debitTotal(AccountingSystem3_fixed.Account a){ return debitTotals[a.id]; }
+
+    long creditTotal(AccountingSystem3_fixed.Account a){ return creditTotals[a.id]; }
+
+    /** True once any transaction (even one posted before the account was opened, or archived) names the account. */
+    boolean isActive(AccountingSystem3_fixed.Account a){ return postingsOf(a.id).size() > 0 || hasOpening(a.id); }
+
+    /** True if the account has a posting dated on or before {@code day}. */
+    boolean isActiveBy(AccountingSystem3_fixed.Account a, int day){
+        if(day < closedThrough){
+            PeriodArchive.Sums s = closedTotals(day);
+            return s.debit(a.id) != 0L || s.credit(a.id) != 0L;
+        }
+        Postings p = postingsOf(a.id);
+        return hasOpening(a.id) || (p.size() > 0 && p.day(0) <= day);
+    }
+
+    private boolean hasOpening(int id){ return openingDebit(id) != 0L || openingCredit(id) != 0L; }
+
+    private void ensureId(int id){
+        if(id < byId.length) return;
+        int n = Math.max(byId.length * 2, id + 1);
+        byId = Arrays.copyOf(byId, n);
+        balances = Arrays.copyOf(balances, n);
+        debitTotals = Arrays.copyOf(debitTotals, n);
+        creditTotals = Arrays.copyOf(creditTotals, n);
+        postingsById = Arrays.copyOf(postingsById, n);
+        dailyById = Arrays.copyOf(dailyById, n);
+        openingDebits = Arrays.copyOf(openingDebits, n);
+        openingCredits = Arrays.copyOf(openingCredits, n);
+    }
+
+    // ---------------------- Date-range queries ----------------
+    /** Index range [from, to) of postings dated within [fromDay, toDay] (inclusive). */
+    int[] range(Postings postings, int fromDay, int toDay){
+        int from = fromDay == Integer.MIN_VALUE ? 0 : postings.firstOnOrAfter(fromDay);
+        int to = toDay == Integer.MAX_VALUE ? postings.size() : postings.firstOnOrAfter(toDay + 1);
+        return new int[]{from, Math.max(from, to)};
+    }
+
+    /** Entries of the whole book dated within [fromDay, toDay], in date order. */
+    Postings byDate(){ return byDate; }
+
+    /**
+     * Activity of one account over [fromDay, toDay]; only that account's postings in the range
+     * are read (the open periods' only; see archivedPostings() for a closed one).
+     */
+    Activity activity(AccountingSystem3_fixed.Account a, int fromDay, int toDay){
+        Activity out = new Activity();
+        addActivity(out, a, fromDay, toDay);
+        return out;
+    }
+
+    /** Activity of every open account of {@code type} over [fromDay, toDay]. */
+    Activity activity(AccountingSystem3_fixed.AccountType type, int fromDay, int toDay){
+        Activity out = new Activity();
+        for(AccountingSystem3_fixed.Account a : accounts.values()){
+            if(a.type == type) addActivity(out, a, fromDay, toDay);
+        }
+        return out;
+    }
+
+    /**
+     * Balance of {@code a} at the end of {@code day}, O(log days) from the account's
+     * DailyTotals; a day inside a closed period is answered by the PeriodArchive.
+     */
+    long balanceAsOf(AccountingSystem3_fixed.Account a, int day){
+        if(day < closedThrough){
+            PeriodArchive.Sums s = closedTotals(day);
+            return balanceOf(a.type, s.debit(a.id), s.credit(a.id));
+        }
+        DailyTotals t = dailyById[a.id];
+        return t == null ? 0L : balanceOf(a.type, t.debitsThrough(day), t.creditsThrough(day));
+    }
+
+    private DailyTotals daily(int id){
+        DailyTotals t = dailyById[id];
+        if(t == null) dailyById[id] = t = new DailyTotals();
+        return t;
+    }
+
+    private void addActivity(Activity out, AccountingSystem3_fixed.Account a, int fromDay, int toDay){
+        Postings p = postingsOf(a.id);
+        int[] r = range(p, fromDay, toDay);
+        for(int k = r[0]; k < r[1]; k++){
+            int pos = p.get(k);
+            long amt = transactions.amount(pos);
+            if(transactions.debitId(pos) == a.id){ out.debits += amt; out.net += debitDelta(a.type, amt); }
+            if(transactions.creditId(pos) == a.id){ out.credits += amt; out.net += creditDelta(a.type, amt); }
+        }
+        out.count += r[1] - r[0];
+    }
+
+    // ---------------------- Aggregates ----------------
+    /** Sum of the balances of all accounts of {@code type}, O(1). */
+    long typeTotal(AccountingSystem3_fixed.AccountType type){
+        return typeTotals[type.ordinal()].sum();
+    }
+
+    // ---------------------- Postings index ----------------
+    /** Positions in transactions() that touch the account, oldest first (never null). */
+    Postings postingsOf(String name){
+        return postingsOf(AccountIds.idOf(name));
+    }
+
+    Postings postingsOf(int id){
+        Postings p = id >= 0 && id < postingsById.length ? postingsById[id] : null;
+        return p != null ? p : Postings.EMPTY;
+    }
+
+    int postingCount(String name){ return postingsOf(name).size(); }
+
+    private Postings postingsFor(int id){
+        ensureId(id);
+        Postings p = postingsById[id];
+        if(p == null) postingsById[id] = p = new Postings();
+        return p;
+    }
+
+    /**
+     * Growable int list of transaction positions in date order (same-day entries in arrival
+     * order); avoids boxing one Integer per posting. Dates are read from the store's column.
+     */
+    static final class Postings {
+        static final Postings EMPTY = new Postings();
+
+        private int[] idx = new int[4];
+        private int[] days = new int[4]; // each entry's epoch day, so ordering never reads the store
+        private int size;
+
+        /** Appends the newest entry; a back-dated one goes after the entries of its day. */
+        private void add(int pos, int day){
+            if(size == idx.length){
+                idx = Arrays.copyOf(idx, size * 2);
+                days = Arrays.copyOf(days, size * 2);
+            }
+            int at = size;
+            if(size > 0 && days[size - 1] > day){
+                at = firstOnOrAfter(day + 1);
+                System.arraycopy(idx, at, idx, at + 1, size - at);
+                System.arraycopy(days, at, days, at + 1, size - at);
+            }
+            idx[at] = pos;
+            days[at] = day;
+            size++;
+        }
+        int size(){ return size; }
+        int get(int k){ return idx[k]; }
+        int day(int k){ return days[k]; }
+        int[] copy(int from, int to){ return Arrays.copyOfRange(idx, from, to); }
+
+        /** Renumbers the entries after the store was compacted, leaving out dropped ones (-1). */
+        private void remap(int[] to){
+            int n = 0;
+            for(int k = 0; k < size; k++){
+                int pos = to[idx[k]];
+                if(pos < 0) continue;
+                idx[n] = pos;
+                days[n++] = days[k];
+            }
+            size = n;
+            if(idx.length > 16 && n < idx.length / 4){
+                idx = Arrays.copyOf(idx, Math.max(4, n * 2));
+                days = Arrays.copyOf(days, idx.length);
+            }
+        }
+
+        /** Index of the first entry dated {@code day} or later (size() if none). */
+        int firstOnOrAfter(int day){
+            int lo = 0, hi = size;
+            while(lo < hi){
+                int mid = (lo + hi) >>> 1;
+                if(days[mid] < day) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    /** What an account (or all accounts of a type) did over a date range; amounts in centavos. */
+    static final class Activity {
+        long debits, credits;
+        long net;   // signed change to the balance(s), per normal-balance rules
+        int count;  // postings in the range
+    }
+
+    // ---------------------- Normal-balance rules ----------------
+    /** Signed effect of a debit on an account: ASSET/EXPENSE increase, everything else decreases. */
+    static long debitDelta(AccountingSystem3_fixed.AccountType type, long amount){
+        return (type == AccountingSystem3_fixed.AccountType.ASSET || type == AccountingSystem3_fixed.AccountType.EXPENSE) ? amount : -amount;
+    }
+
+    /** Signed effect of a credit on an account: LIABILITY/EQUITY/REVENUE increase, everything else decreases. */
+    static long creditDelta(AccountingSystem3_fixed.AccountType type, long amount){
+        return (type == AccountingSystem3_fixed.AccountType.LIABILITY || type == AccountingSystem3_fixed.AccountType.EQUITY
+                || type == AccountingSystem3_fixed.AccountType.REVENUE) ? amount : -amount;
+    }
+
+    static long balanceOf(AccountingSystem3_fixed.AccountType type, long debits, long credits){
+        return debitDelta(type, debits) + creditDelta(type, credits);
+    }
+}
@@ -0,0 +1,267 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ReportEngine
+ *
+ * Headless month-end reports over a PostingEngine's book: trial balance, income
+ * statement and balance sheet, from one parallel pass over the TransactionStore.
+ * - The store is cut into position ranges on a ForkJoinPool; each leaf sums debits and
+ *   credits per account ID (cumulative up to the report date, and within the period),
+ *   and the partial arrays are added together on the way back up
+ * - Only the columns are read (no Transaction objects), so a run over millions of rows
+ *   allocates a few arrays per leaf and scales with the pool's parallelism
+ * - A run reads a fixed prefix of the append-only store and a copy of the account list,
+ *   so it can go on a worker thread while new entries are posted; they are left out
+ * - Closed periods are no longer in the store: their totals come from the PeriodArchive
+ *   (segment heads, or one paged-in segment for a date inside a period), and their
+ *   closing entries are kept out of the income statement
+ */
+final class ReportEngine {
+
+    static final int LEAF_ROWS = 1 << 15;
+
+    private final ForkJoinPool pool;
+
+    ReportEngine(){ this(ForkJoinPool.commonPool()); }
+
+    ReportEngine(ForkJoinPool pool){ this.pool = pool; }
+
+    /** One account line of a report; amounts in centavos. */
+    static final class Line {
+        final String account;
+        final AccountingSystem3_fixed.AccountType type;
+        final long debit, credit; // trial balance columns; the other reports use amount
+        final long amount;        // balance per the account's normal side
+        Line(String account, AccountingSystem3_fixed.AccountType type, long debit, long credit, long amount){
+            this.account = account; this.type = type; this.debit = debit; this.credit = credit; this.amount = amount;
+        }
+    }
+
+    /** The three statements for one period; see run(). */
+    static final class Reports {
+        int fromDay, toDay;
+        long entries;                                       // entries dated up to toDay
+        final List<Line> trialBalance = new ArrayList<>();  // as of toDay
+        long trialDebits, trialCredits;
+        final List<Line> revenues = new ArrayList<>();      // within [fromDay, toDay]
+        final List<Line> expenses = new ArrayList<>();
+        long totalRevenue, totalExpenses, netIncome;
+        final List<Line> assets = new ArrayList<>();        // as of toDay
+        final List<Line> liabilities = new ArrayList<>();
+        final List<Line> equity = new ArrayList<>();
+        final List<Line> unclassified = new ArrayList<>();  // UNKNOWN type, as net debit balances
+        long totalAssets, totalLiabilities, totalEquity, totalUnclassified;
+        long currentEarnings; // revenue less expenses to date, not yet closed into equity
+        long elapsedNanos;
+
+        boolean trialBalances(){ return trialDebits == trialCredits; }
+        boolean sheetBalances(){ return totalAssets + totalUnclassified == totalLiabilities + totalEquity + currentEarnings; }
+    }
+
+    // ---------------------- Run ----------------
+    /**
+     * Builds the reports for the period [fromDay, toDay] (epoch days, inclusive; use
+     * Integer.MIN_VALUE / MAX_VALUE for an open end). Trial balance and balance sheet are
+     * as of toDay; the income statement covers the period.
+     */
+    Reports run(PostingEngine engine, int fromDay, int toDay){
+        TransactionStore store = engine.store();
+        // taken with posting paused, so every entry below size is fully visible to the scan
+        int[] size = new int[1];
+        PostingEngine.Opening[] closed = new PostingEngine.Opening[1];
+        List<AccountingSystem3_fixed.Account> accounts = engine.query(() -> {
+            size[0] = store.size();
+            closed[0] = engine.opening();
+            return new ArrayList<>(engine.accounts().values());
+        });
+        return run(store, size[0], accounts, closed[0], fromDay, toDay);
+    }
+
+    /**
+     * Same, over the first {@code size} store entries, a copy of the account list and the
+     * book's opening() taken by the caller (together, inside query()); this is the form to
+     * call from a worker thread while the book is live.
+     */
+    Reports run(TransactionStore store, int size, List<AccountingSystem3_fixed.Account> accounts,
+                PostingEngine.Opening closed, int fromDay, int toDay){
+        long t0 = System.nanoTime();
+        int ids = AccountIds.size();
+        Totals totals = pool.invoke(new Scan(store, 0, size, ids, fromDay, toDay));
+        addClosed(totals, closed, fromDay, toDay);
+
+        Reports r = new Reports();
+        r.fromDay = fromDay;
+        r.toDay = toDay;
+        r.entries = totals.entries;
+        for(AccountingSystem3_fixed.Account a : accounts){
+            if(a.id >= ids) continue; // opened after the scan started
+            AccountingSystem3_fixed.AccountType type = a.type;
+            long dr = totals.debits[a.id], cr = totals.credits[a.id];
+            long net = dr - cr;
+            if(dr != 0 || cr != 0){
+                Line tb = new Line(a.name, type, Math.max(net, 0L), Math.max(-net, 0L), PostingEngine.balanceOf(type, dr, cr));
+                r.trialBalance.add(tb);
+                r.trialDebits += tb.debit;
+                r.trialCredits += tb.credit;
+            }
+            long balance = PostingEngine.balanceOf(type, dr, cr);
+            long period = PostingEngine.balanceOf(type, totals.periodDebits[a.id], totals.periodCredits[a.id]);
+            switch(type){
+                case REVENUE:
+                    r.currentEarnings += balance;
+                    if(period != 0){ r.revenues.add(line(a, period)); r.totalRevenue += period; }
+                    break;
+                case EXPENSE:
+                    r.currentEarnings -= balance;
+                    if(period != 0){ r.expenses.add(line(a, period)); r.totalExpenses += period; }
+                    break;
+                case ASSET:
+                    if(balance != 0){ r.assets.add(line(a, balance)); r.totalAssets += balance; }
+                    break;
+                case LIABILITY:
+                    if(balance != 0){ r.liabilities.add(line(a, balance)); r.totalLiabilities += balance; }
+                    break;
+                case EQUITY:
+                    if(balance != 0){ r.equity.add(line(a, balance)); r.totalEquity += balance; }
+                    break;
+                default:
+                    if(net != 0){ r.unclassified.add(line(a, net)); r.totalUnclassified += net; }
+                    break;
+            }
+        }
+        r.netIncome = r.totalRevenue - r.totalExpenses;
+        r.elapsedNanos = System.nanoTime() - t0;
+        return r;
+    }
+
+    /** Adds what the closed periods contribute; the store only holds entries after them. */
+    private static void addClosed(Totals t, PostingEngine.Opening closed, int fromDay, int toDay){
+        int through = closed.closedThrough;
+        if(through == Integer.MIN_VALUE || fromDay > toDay) return;
+        PeriodArchive.Sums upTo = toDay >= through ? closed.totals : closed.archive.totalsThrough(toDay, through);
+        PeriodArchive.Sums before, closing;
+        if(fromDay == Integer.MIN_VALUE) before = PeriodArchive.Sums.NONE;
+        else if(fromDay - 1 >= Math.min(toDay, through)) before = upTo;
+        else before = closed.archive.totalsThrough(fromDay - 1, through);
+        closing = before == upTo ? PeriodArchive.Sums.NONE : closed.archive.closingWithin(fromDay, toDay, through);
+        for(int id = 0; id < t.debits.length; id++){
+            t.debits[id] += upTo.debit(id);
+            t.credits[id] += upTo.credit(id);
+            t.periodDebits[id] += upTo.debit(id) - before.debit(id) - closing.debit(id);
+            t.periodCredits[id] += upTo.credit(id) - before.credit(id) - closing.credit(id);
+        }
+        t.entries += upTo.entries;
+    }
+
+    private static Line line(AccountingSystem3_fixed.Account a, long amount){
+        return new Line(a.name, a.type, 0L, 0L, amount);
+    }
+
+    // ---------------------- Parallel scan ----------------
+    /** Per-account sums of one store range; index = AccountIds id. */
+    private static final class Totals {
+        final long[] debits, credits;             // dated up to toDay
+        final long[] periodDebits, periodCredits; // dated within [fromDay, toDay]
+        long entries;
+        Totals(int ids){
+            debits = new long[ids]; credits = new long[ids];
+            periodDebits = new long[ids]; periodCredits = new long[ids];
+        }
+        Totals add(Totals o){
+            for(int i = 0; i < debits.length; i++){
+                debits[i] += o.debits[i]; credits[i] += o.credits[i];
+                periodDebits[i] += o.periodDebits[i]; periodCredits[i] += o.periodCredits[i];
+            }
+            entries += o.entries;
+            return this;
+        }
+    }
+
+    private static final class Scan extends RecursiveTask<Totals> {
+        private final TransactionStore store;
+        private final int lo, hi, ids, fromDay, toDay;
+
+        Scan(TransactionStore store, int lo, int hi, int ids, int fromDay, int toDay){
+            this.store = store; this.lo = lo; this.hi = hi; this.ids = ids; this.fromDay = fromDay; this.toDay = toDay;
+        }
+
+        @Override
+        protected Totals compute(){
+            if(hi - lo <= LEAF_ROWS){
+                Totals t = new Totals(ids);
+                for(int pos = lo; pos < hi; pos++){
+                    int day = store.epochDay(pos);
+                    if(day > toDay) continue;
+                    int d = store.debitId(pos), c = store.creditId(pos);
+                    if(d >= ids || c >= ids) continue; // account interned after the scan started
+                    long amt = store.amount(pos);
+                    t.debits[d] += amt;
+                    t.credits[c] += amt;
+                    if(day >= fromDay){
+                        t.periodDebits[d] += amt;
+                        t.periodCredits[c] += amt;
+                    }
+                    t.entries++;
+                }
+                return t;
+            }
+            int mid = (lo + hi) >>> 1;
+            Scan left = new Scan(store, lo, mid, ids, fromDay, toDay);
+            left.fork();
+            Totals right = new Scan(store, mid, hi, ids, fromDay, toDay).compute();
+            return left.join().add(right);
+        }
+    }
+
+    // ---------------------- Text ----------------
+    /** Plain-text rendering of the three statements, for the Reports tab (EDT: uses dateText). */
+    static String format(Reports r, TransactionStore store){
+        StringBuilder sb = new StringBuilder(4096);
+        String period = (r.fromDay == Integer.MIN_VALUE ? "beginning" : store.dateText(r.fromDay))
+                + " to " + (r.toDay == Integer.MAX_VALUE ? "latest" : store.dateText(r.toDay));
+        String asOf = r.toDay == Integer.MAX_VALUE ? "latest" : store.dateText(r.toDay);
+
+        sb.append("TRIAL BALANCE as of ").append(asOf).append('\n');
+        row(sb, "Account", "Debit", "Credit");
+        for(Line l : r.trialBalance) row(sb, l.account, l.debit == 0 ? "" : Money.format(l.debit), l.credit == 0 ? "" : Money.format(l.credit));
+        row(sb, "Totals", Money.format(r.trialDebits), Money.format(r.trialCredits));
+        if(!r.trialBalances()) sb.append("  ** debits and credits differ by ").append(Money.format(r.trialDebits - r.trialCredits)).append('\n');
+
+        sb.append("\nINCOME STATEMENT ").append(period).append('\n');
+        sb.append("Revenue\n");
+        for(Line l : r.revenues) row(sb, "  " + l.account, Money.formatAccounting(l.amount), "");
+        row(sb, "Total Revenue", "", Money.formatAccounting(r.totalRevenue));
+        sb.append("Expenses\n");
+        for(Line l : r.expenses) row(sb, "  " + l.account, Money.formatAccounting(l.amount), "");
+        row(sb, "Total Expenses", "", Money.formatAccounting(r.totalExpenses));
+        row(sb, r.netIncome >= 0 ? "Net Income" : "Net Loss", "", Money.formatAccounting(r.netIncome));
+
+        sb.append("\nBALANCE SHEET as of ").append(asOf).append('\n');
+        sb.append("Assets\n");
+        for(Line l : r.assets) row(sb, "  " + l.account, Money.formatAccounting(l.amount), "");
+        row(sb, "Total Assets", "", Money.formatAccounting(r.totalAssets));
+        sb.append("Liabilities\n");
+        for(Line l : r.liabilities) row(sb, "  " + l.account, Money.formatAccounting(l.amount), "");
+        row(sb, "Total Liabilities", "", Money.formatAccounting(r.totalLiabilities));
+        sb.append("Equity\n");
+        for(Line l : r.equity) row(sb, "  " + l.account, Money.formatAccounting(l.amount), "");
+        row(sb, "  Current earnings (unclosed)", Money.formatAccounting(r.currentEarnings), "");
+        row(sb, "Total Equity", "", Money.formatAccounting(r.totalEquity + r.currentEarnings));
+        row(sb, "Total Liabilities & Equity", "", Money.formatAccounting(r.totalLiabilities + r.totalEquity + r.currentEarnings));
+        if(!r.unclassified.isEmpty()){
+            sb.append("Unclassified (net debit)\n");
+            for(Line l : r.unclassified) row(sb, "  " + l.account, Money.formatAccounting(l.amount), "");
+            row(sb, "Total Unclassified", "", Money.formatAccounting(r.totalUnclassified));
+        }
+        if(!r.sheetBalances()) sb.append("  ** assets differ from liabilities & equity\n");
+
+        sb.append(String.format("%n%,d entries, %.1f ms%n", r.entries, r.elapsedNanos / 1e6));
+        return sb.toString();
+    }
+
+    private static void row(StringBuilder sb, String label, String a, String b){
+        sb.append(String.format("%-40s %20s %20s%n", label, a, b));
+    }
+}
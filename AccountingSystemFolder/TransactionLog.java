@@ -0,0 +1,437 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * TransactionLog
+ *
+ * Append-only write-ahead log for the PostingEngine book.
+ * - Every change to the book (open/retype/remove account, post transaction) is one record:
+ *     [int payloadLength][int crc32(payload)][payload]
+ * - append() only encodes the record into an in-memory batch and returns; a single
+ *   background writer drains whatever has accumulated and writes it with one write
+ *   call (group commit), so posting never waits on the disk
+ * - FsyncPolicy decides when the writer forces the file to stable storage
+ * - replay() re-applies the records to an engine on startup; a torn or corrupt tail
+ *   (crash in the middle of a write) is cut off so new records follow the last good one
+ * - PostingEngine.postBatch() brackets the accounts it opens or retypes and its posts with
+ *   BATCH_START/BATCH_END records and queues them as one append(Records); replay holds a
+ *   batch back until its end record and drops an unfinished one, accounts included
+ * - Given a BalanceCheckpoint, replay restores the posts before its position without
+ *   applying them and installs the checkpoint's totals there, so only the records after
+ *   it cost balance work; appendedPosition() is the offset a new checkpoint is tagged with
+ * - PostingEngine.closePeriod() logs its closing entries as a batch, then a CLOSE_PERIOD
+ *   record once the period's segment is written; replaying it archives the same entries
+ */
+class TransactionLog implements Closeable {
+
+    enum FsyncPolicy {
+        ALWAYS,     // force after every group commit
+        INTERVAL,   // force at most once per fsyncIntervalMillis, and within that long of a write
+        NEVER;      // leave it to the OS page cache
+
+        static FsyncPolicy parse(String s){
+            if(s == null || s.trim().isEmpty()) return INTERVAL;
+            return valueOf(s.trim().toUpperCase());
+        }
+    }
+
+    private static final byte OPEN_ACCOUNT = 1, RETYPE_ACCOUNT = 2, REMOVE_ACCOUNT = 3, POST = 4, BATCH_START = 5, BATCH_END = 6, CLOSE_PERIOD = 7;
+    private static final int HEADER = 8;
+    private static final int MAX_RECORD = 1 << 20;
+    private static final int MAX_BATCH = 1 << 20;   // write early once this many bytes are queued
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+    private final long commitDelayMillis;
+
+    private final Object lock = new Object();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(8192);
+    private ByteArrayOutputStream spare = new ByteArrayOutputStream(8192);
+    private long appendedSeq;   // records handed to append()
+    private long appendedPosition; // log offset just past the last record handed to append()
+    private long writtenSeq;    // records written by the group commit (and forced, per policy)
+    private boolean flushRequested;
+    private boolean closed;
+    private IOException failure;
+
+    private Thread writer;
+    private long lastForce;
+    private boolean dirty; // written since the last force (INTERVAL); writer thread only
+
+    /** Opens (creating if needed) the log at {@code path}. Call replay() before the first append(). */
+    TransactionLog(Path path, FsyncPolicy policy, long fsyncIntervalMillis, long commitDelayMillis) throws IOException {
+        this.path = path;
+        this.policy = policy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.commitDelayMillis = commitDelayMillis;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    Path path(){ return path; }
+
+    // ---------------------- Replay ----------------
+    /**
+     * Applies every intact record from byte offset {@code from} to the engine, then truncates
+     * anything after the last intact record and positions the log for appending.
+     * Returns the number of records applied.
+     */
+    long replay(PostingEngine engine, long from) throws IOException {
+        return replay(engine, from, null);
+    }
+
+    /**
+     * replay(), seeding the balances from {@code checkpoint} (null for none): posts up to its
+     * log position are only restored (stored and indexed), and its totals are installed
+     * there. If the log does not reach that position on a record boundary, or the book there
+     * does not match the checkpoint, the balances are rebuilt from the whole book instead.
+     */
+    long replay(PostingEngine engine, long from, BalanceCheckpoint checkpoint) throws IOException {
+        long size = channel.size();
+        long pos = Math.min(from, size);
+        long applied = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        CRC32 crc = new CRC32();
+        Replay batch = new Replay();
+        batch.seed = checkpoint;
+        batch.boundary(engine, pos);
+        while(pos + HEADER <= size){
+            header.clear();
+            readFully(header, pos);
+            header.flip();
+            int len = header.getInt();
+            int sum = header.getInt();
+            if(len <= 0 || len > MAX_RECORD || pos + HEADER + len > size) break;
+            ByteBuffer payload = ByteBuffer.allocate(len);
+            readFully(payload, pos + HEADER);
+            crc.reset();
+            crc.update(payload.array(), 0, len);
+            if((int) crc.getValue() != sum) break;
+            batch.apply(engine, new DataInputStream(new ByteArrayInputStream(payload.array(), 0, len)), pos);
+            pos += HEADER + len;
+            applied++;
+            batch.boundary(engine, pos);
+        }
+        if(batch.open){ // the log ends inside a batch: none of it happened
+            applied -= batch.changes.size() + batch.pending.size() + 1;
+            pos = batch.start;
+        }
+        if(batch.seed != null) engine.reverify(); // never got to use the checkpoint
+        if(pos < size) channel.truncate(pos);
+        channel.position(pos);
+        synchronized(lock){ appendedPosition = pos; }
+        return applied;
+    }
+
+    private void readFully(ByteBuffer buf, long pos) throws IOException {
+        while(buf.hasRemaining()){
+            int n = channel.read(buf, pos);
+            if(n < 0) throw new EOFException();
+            pos += n;
+        }
+    }
+
+    /**
+     * Replay state: the account records and posts inside a BATCH_START..BATCH_END pair wait in
+     * {@code changes} and {@code pending}, so a batch cut off by a crash leaves nothing behind;
+     * while {@code seed} is set, posts are restored rather than posted.
+     */
+    private static final class Replay {
+        boolean open;
+        long start; // offset of the open batch's start record
+        final List<Runnable> changes = new ArrayList<>(); // the open batch's account records
+        final List<AccountingSystem3_fixed.Transaction> pending = new ArrayList<>();
+        BalanceCheckpoint seed; // not reached yet (or missed)
+        boolean missed;         // seed can't be used: restore to the end, then rebuild
+
+        /** Called at each record boundary; on reaching the checkpoint, goes back to posting. */
+        void boundary(PostingEngine engine, long pos){
+            if(seed == null || missed || pos < seed.logPosition) return;
+            if(pos == seed.logPosition && !open && engine.restoreTotals(seed)) seed = null;
+            else missed = true;
+        }
+
+        private void post(PostingEngine engine, AccountingSystem3_fixed.Transaction tx){
+            if(seed == null) engine.post(tx);
+            else engine.restoreTransaction(tx.epochDay, tx.debitId, tx.creditId, tx.amount, tx.description);
+        }
+
+        void apply(PostingEngine engine, DataInputStream in, long offset) throws IOException {
+            byte kind = in.readByte();
+            if(open && (kind == REMOVE_ACCOUNT || kind == BATCH_START || kind == CLOSE_PERIOD)){
+                throw new IOException("Log record type " + kind + " inside a batch");
+            }
+            switch(kind){
+                case OPEN_ACCOUNT: {
+                    String name = in.readUTF();
+                    AccountingSystem3_fixed.AccountType type = AccountingSystem3_fixed.AccountType.valueOf(in.readUTF());
+                    if(open) changes.add(() -> engine.openAccount(name, type)); else engine.openAccount(name, type);
+                    break;
+                }
+                case RETYPE_ACCOUNT: {
+                    String name = in.readUTF();
+                    AccountingSystem3_fixed.AccountType type = AccountingSystem3_fixed.AccountType.valueOf(in.readUTF());
+                    if(open) changes.add(() -> engine.retype(name, type)); else engine.retype(name, type);
+                    break;
+                }
+                case REMOVE_ACCOUNT: engine.removeAccount(in.readUTF()); break;
+                case POST:
+                    String date = in.readUTF(), desc = in.readUTF(), debit = in.readUTF(), credit = in.readUTF();
+                    AccountingSystem3_fixed.Transaction tx = new AccountingSystem3_fixed.Transaction(date, desc, debit, credit, in.readLong());
+                    if(open) pending.add(tx); else post(engine, tx);
+                    break;
+                case BATCH_START:
+                    if(open) throw new IOException("Nested batch in log");
+                    open = true;
+                    start = offset;
+                    break;
+                case BATCH_END:
+                    if(!open) throw new IOException("Batch end without start in log");
+                    for(Runnable change : changes) change.run();
+                    changes.clear();
+                    if(seed == null) engine.postAll(pending); // already validated when it was first posted
+                    else for(AccountingSystem3_fixed.Transaction p : pending) post(engine, p);
+                    pending.clear();
+                    open = false;
+                    break;
+                case CLOSE_PERIOD: engine.archiveThrough(in.readInt()); break; // a checkpoint still ahead was taken after it
+                default: throw new IOException("Unknown log record type " + kind);
+            }
+        }
+    }
+
+    long size() throws IOException { return channel.size(); }
+
+    /** Current end of the log, in bytes (everything appended so far, once synced). */
+    long position() throws IOException { return channel.position(); }
+
+    /** Where the log ends once everything appended so far is written; see BalanceCheckpoint. */
+    long appendedPosition(){
+        synchronized(lock){ return appendedPosition; }
+    }
+
+    // ---------------------- Appending ----------------
+    long appendOpenAccount(String name, AccountingSystem3_fixed.AccountType type){
+        return append(records().openAccount(name, type));
+    }
+
+    long appendRetype(String name, AccountingSystem3_fixed.AccountType type){
+        return append(records().retype(name, type));
+    }
+
+    long appendRemoveAccount(String name){
+        return append(records().record(out -> { out.writeByte(REMOVE_ACCOUNT); out.writeUTF(name); }));
+    }
+
+    long appendClosePeriod(int throughDay){
+        return append(records().record(out -> { out.writeByte(CLOSE_PERIOD); out.writeInt(throughDay); }));
+    }
+
+    long appendPost(AccountingSystem3_fixed.Transaction tx){
+        return append(records().post(tx));
+    }
+
+    /** An empty run of records, to fill and hand to append(Records). */
+    Records records(){ return new Records(); }
+
+    private interface RecordWriter { void write(DataOutputStream out) throws IOException; }
+
+    /**
+     * Records encoded up front, each with its header, so that a caller can build a whole
+     * change (e.g. a batch and the accounts it opens) before touching the book, then queue
+     * it with one append(): nothing of it reaches the log unless all of it does.
+     */
+    static final class Records {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        private int count;
+
+        private Records(){}
+
+        Records openAccount(String name, AccountingSystem3_fixed.AccountType type){
+            return record(out -> { out.writeByte(OPEN_ACCOUNT); out.writeUTF(name); out.writeUTF(type.name()); });
+        }
+
+        Records retype(String name, AccountingSystem3_fixed.AccountType type){
+            return record(out -> { out.writeByte(RETYPE_ACCOUNT); out.writeUTF(name); out.writeUTF(type.name()); });
+        }
+
+        Records batchStart(int entries){
+            return record(out -> { out.writeByte(BATCH_START); out.writeInt(entries); });
+        }
+
+        Records batchEnd(){
+            return record(out -> out.writeByte(BATCH_END));
+        }
+
+        Records post(AccountingSystem3_fixed.Transaction tx){
+            return record(out -> {
+                out.writeByte(POST);
+                out.writeUTF(tx.date()); out.writeUTF(tx.description); out.writeUTF(tx.debit()); out.writeUTF(tx.credit());
+                out.writeLong(tx.amount);
+            });
+        }
+
+        int count(){ return count; }
+
+        private Records record(RecordWriter record){
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(64);
+            try(DataOutputStream out = new DataOutputStream(buf)){
+                record.write(out);
+            } catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+            byte[] payload = buf.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            writeInt(bytes, payload.length);
+            writeInt(bytes, (int) crc.getValue());
+            bytes.write(payload, 0, payload.length);
+            count++;
+            return this;
+        }
+    }
+
+    /**
+     * Queues {@code records} for the next group commit as one piece; returns the sequence
+     * number of the last one, for awaitWritten(). Throws, queuing nothing, if the log has
+     * failed or is closed.
+     */
+    long append(Records records){
+        synchronized(lock){
+            if(failure != null) throw new UncheckedIOException("Transaction log write failed", failure);
+            if(closed) throw new IllegalStateException("Transaction log is closed");
+            if(records.count == 0) return appendedSeq;
+            byte[] bytes = records.bytes.toByteArray();
+            pending.write(bytes, 0, bytes.length);
+            appendedPosition += bytes.length;
+            appendedSeq += records.count;
+            startWriter();
+            lock.notifyAll();
+            return appendedSeq;
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int v){
+        out.write(v >>> 24); out.write(v >>> 16); out.write(v >>> 8); out.write(v);
+    }
+
+    /** Blocks until record {@code seq} (and everything before it) has been written by the group commit. */
+    void awaitWritten(long seq) throws IOException {
+        synchronized(lock){
+            while(writtenSeq < seq && failure == null){
+                flushRequested = true; // cut the commit delay short
+                lock.notifyAll();
+                try { lock.wait(); }
+                catch(InterruptedException e){ Thread.currentThread().interrupt(); throw new InterruptedIOException(); }
+            }
+            if(failure != null) throw failure;
+        }
+    }
+
+    /** Writes and forces everything appended so far, whatever the policy. */
+    void sync() throws IOException {
+        long seq;
+        synchronized(lock){ seq = appendedSeq; }
+        if(seq > 0) awaitWritten(seq);
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            synchronized(lock){
+                closed = true;
+                lock.notifyAll();
+            }
+            if(writer != null){
+                try { writer.join(); } catch(InterruptedException e){ Thread.currentThread().interrupt(); }
+            }
+            channel.close();
+        }
+    }
+
+    // ---------------------- Group commit writer ----------------
+    private void startWriter(){
+        if(writer != null) return;
+        writer = new Thread(this::runWriter, "transaction-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void runWriter(){
+        while(true){
+            ByteArrayOutputStream batch;
+            long batchSeq;
+            boolean forceDue = false;
+            synchronized(lock){
+                while(pending.size() == 0 && !closed){
+                    // an idle log still gets its last writes forced once the interval is up
+                    long left = dirty ? lastForce + fsyncIntervalMillis - System.currentTimeMillis() : 0L;
+                    if(dirty && left <= 0){ forceDue = true; break; }
+                    try { if(dirty) lock.wait(left); else lock.wait(); } catch(InterruptedException e){ return; }
+                }
+                if(!forceDue && pending.size() == 0) return; // closed and drained (close() syncs)
+            }
+            if(forceDue){
+                try {
+                    channel.force(false);
+                    lastForce = System.currentTimeMillis();
+                    dirty = false;
+                } catch(IOException e){
+                    synchronized(lock){
+                        failure = e;
+                        lock.notifyAll();
+                    }
+                    return;
+                }
+                continue;
+            }
+            synchronized(lock){
+                // let a burst of appends pile up into one write
+                long deadline = System.currentTimeMillis() + commitDelayMillis;
+                while(!closed && !flushRequested && pending.size() < MAX_BATCH){
+                    long left = deadline - System.currentTimeMillis();
+                    if(left <= 0) break;
+                    try { lock.wait(left); } catch(InterruptedException e){ return; }
+                }
+                flushRequested = false;
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                batchSeq = appendedSeq;
+            }
+            try {
+                ByteBuffer bb = ByteBuffer.wrap(batch.toByteArray());
+                while(bb.hasRemaining()) channel.write(bb);
+                long now = System.currentTimeMillis();
+                if(policy == FsyncPolicy.ALWAYS || (policy == FsyncPolicy.INTERVAL && now - lastForce >= fsyncIntervalMillis)){
+                    channel.force(false);
+                    lastForce = now;
+                    dirty = false;
+                } else if(policy == FsyncPolicy.INTERVAL){
+                    dirty = true;
+                }
+                synchronized(lock){
+                    batch.reset();
+                    writtenSeq = batchSeq;
+                    lock.notifyAll();
+                }
+            } catch(IOException e){
+                synchronized(lock){
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+}
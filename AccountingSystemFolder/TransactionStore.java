@@ -0,0 +1,178 @@
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TransactionStore
+ *
+ * Column-oriented storage for the PostingEngine's transactions: one primitive array per
+ * field instead of one object per entry (about 24 bytes per transaction).
+ * - int[] epochDay, debitId, creditId (AccountIds), descId; long[] amount (centavos)
+ * - Descriptions are pooled: each distinct text is stored once and referred to by id
+ * - Cursor walks the columns without allocating, for full-book scans (replay, reports,
+ *   snapshots); get()/asList() build a Transaction on demand for code that wants one
+ * - Append-only: a position, once assigned, always names the same entry, until a period
+ *   close compacts the store (compact() renumbers the entries it keeps, in order)
+ * - Not synchronized itself; PostingEngine serializes appends (see its class comment).
+ *   size and the column references are volatile and add() bumps size last, so a reader
+ *   on another thread that takes size() first may read any position below it unlocked
+ */
+final class TransactionStore {
+
+    private volatile int size;
+    private volatile int[] epochDay = new int[1024];
+    private volatile int[] debitId = new int[1024];
+    private volatile int[] creditId = new int[1024];
+    private volatile int[] descId = new int[1024];
+    private volatile long[] amount = new long[1024];
+
+    // description pool
+    private final Map<String, Integer> descIds = new HashMap<>();
+    private volatile String[] descs = new String[256];
+
+    // epoch day -> yyyy-MM-dd text for display; books reuse a small set of days heavily
+    // (concurrent: any reader thread may format dates)
+    private final Map<Integer, String> textOfDay = new ConcurrentHashMap<>();
+
+    private final List<AccountingSystem3_fixed.Transaction> view = new AbstractList<AccountingSystem3_fixed.Transaction>(){
+        @Override public AccountingSystem3_fixed.Transaction get(int pos){ return TransactionStore.this.get(pos); }
+        @Override public int size(){ return size; }
+    };
+
+    int size(){ return size; }
+
+    // ---------------------- Appending ----------------
+    /** Appends one entry; returns its position. */
+    int add(AccountingSystem3_fixed.Transaction tx){
+        return add(tx.epochDay, tx.debitId, tx.creditId, tx.amount, tx.description);
+    }
+
+    int add(int day, int debit, int credit, long cents, String description){
+        if(size == amount.length) ensureCapacity(size * 2);
+        int pos = size;
+        epochDay[pos] = day;
+        debitId[pos] = debit;
+        creditId[pos] = credit;
+        amount[pos] = cents;
+        descId[pos] = intern(description);
+        size = pos + 1;
+        return pos;
+    }
+
+    void ensureCapacity(int n){
+        if(n <= amount.length) return;
+        epochDay = Arrays.copyOf(epochDay, n);
+        debitId = Arrays.copyOf(debitId, n);
+        creditId = Arrays.copyOf(creditId, n);
+        descId = Arrays.copyOf(descId, n);
+        amount = Arrays.copyOf(amount, n);
+    }
+
+    private int intern(String description){
+        Integer id = descIds.get(description);
+        if(id != null) return id;
+        int next = descIds.size();
+        if(next == descs.length) descs = Arrays.copyOf(descs, next * 2);
+        descs[next] = description;
+        descIds.put(description, next);
+        return next;
+    }
+
+    // ---------------------- Compaction ----------------
+    /**
+     * Drops the entries marked in {@code drop} (a period close archives them), keeping the
+     * rest in order, and rebuilds the description pool and columns to fit what is left.
+     * Returns each old position's new one, or -1 for a dropped entry.
+     */
+    int[] compact(boolean[] drop){
+        int[] remap = new int[size];
+        String[] oldDescs = descs;
+        descIds.clear();
+        descs = new String[256];
+        int n = 0;
+        for(int pos = 0; pos < size; pos++){
+            if(drop[pos]){ remap[pos] = -1; continue; }
+            epochDay[n] = epochDay[pos];
+            debitId[n] = debitId[pos];
+            creditId[n] = creditId[pos];
+            amount[n] = amount[pos];
+            descId[n] = intern(oldDescs[descId[pos]]);
+            remap[pos] = n++;
+        }
+        size = n;
+        int capacity = Math.max(1024, n + (n >> 1));
+        if(capacity < amount.length){
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            debitId = Arrays.copyOf(debitId, capacity);
+            creditId = Arrays.copyOf(creditId, capacity);
+            descId = Arrays.copyOf(descId, capacity);
+            amount = Arrays.copyOf(amount, capacity);
+        }
+        return remap;
+    }
+
+    // ---------------------- Column access ----------------
+    int epochDay(int pos){ return epochDay[pos]; }
+    int debitId(int pos){ return debitId[pos]; }
+    int creditId(int pos){ return creditId[pos]; }
+    long amount(int pos){ return amount[pos]; }
+    int descId(int pos){ return descId[pos]; }
+    String description(int pos){ return descs[descId[pos]]; }
+    String date(int pos){ return dateText(epochDay[pos]); }
+
+    /** Number of distinct descriptions; description ids are below this. */
+    int descriptionCount(){ return descIds.size(); }
+
+    String descriptionText(int id){ return descs[id]; }
+
+    /** A Transaction built from the columns (a new object each call). */
+    AccountingSystem3_fixed.Transaction get(int pos){
+        if(pos < 0 || pos >= size) throw new IndexOutOfBoundsException("position " + pos + ", size " + size);
+        return new AccountingSystem3_fixed.Transaction(epochDay[pos], description(pos), debitId[pos], creditId[pos], amount[pos]);
+    }
+
+    /** Read-only List view; each get() builds a Transaction, so prefer a Cursor for scans. */
+    List<AccountingSystem3_fixed.Transaction> asList(){ return view; }
+
+    // ---------------------- Dates ----------------
+    String dateText(int day){
+        String text = textOfDay.get(day);
+        if(text == null){
+            text = LocalDate.ofEpochDay(day).format(AccountingSystem3_fixed.DATE_FMT);
+            textOfDay.putIfAbsent(day, text);
+        }
+        return text;
+    }
+
+    // ---------------------- Cursor ----------------
+    /** Cursor before the first entry. */
+    Cursor cursor(){ return new Cursor(0); }
+
+    /** Cursor before entry {@code from}. */
+    Cursor cursor(int from){ return new Cursor(from); }
+
+    /**
+     * Forward-only reader over the columns:
+     * <pre>  for(Cursor c = store.cursor(); c.next(); ) total += c.amount();</pre>
+     * Sees entries appended while it is open; never allocates.
+     */
+    final class Cursor {
+        private int pos;
+
+        private Cursor(int from){ this.pos = from - 1; }
+
+        boolean next(){ return ++pos < size; }
+
+        /** Moves to entry {@code position} (for visiting an index such as the postings list). */
+        Cursor seek(int position){ this.pos = position; return this; }
+
+        int position(){ return pos; }
+        int epochDay(){ return epochDay[pos]; }
+        int debitId(){ return debitId[pos]; }
+        int creditId(){ return creditId[pos]; }
+        long amount(){ return amount[pos]; }
+        int descId(){ return descId[pos]; }
+        String description(){ return descs[descId[pos]]; }
+        String date(){ return dateText(epochDay[pos]); }
+    }
+}
@@ -0,0 +1,44 @@
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * TransactionTableModel
+ *
+ * Read-only "Transactions" tab model that reads straight from the posting engine's
+ * TransactionStore columns. Nothing is copied into Vectors: cells are derived when the
+ * table asks for them (i.e. only for visible rows), and a post fires a single
+ * rows-inserted event instead of a full table rebuild. Amount is a Long (centavos);
+ * a MoneyRenderer turns it into text.
+ */
+class TransactionTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"Date","Description","Debit","Credit","Amount"};
+
+    private final TransactionStore store;
+
+    TransactionTableModel(TransactionStore store){
+        this.store = store;
+    }
+
+    @Override public int getRowCount(){ return store.size(); }
+    @Override public int getColumnCount(){ return COLUMNS.length; }
+    @Override public String getColumnName(int c){ return COLUMNS[c]; }
+    @Override public boolean isCellEditable(int r, int c){ return false; }
+    @Override public Class<?> getColumnClass(int c){ return c == 4 ? Long.class : String.class; }
+
+    @Override
+    public Object getValueAt(int row, int col){
+        switch(col){
+            case 0: return store.date(row);
+            case 1: return store.description(row);
+            case 2: return AccountIds.name(store.debitId(row));
+            case 3: return AccountIds.name(store.creditId(row));
+            case 4: return store.amount(row);
+            default: return null;
+        }
+    }
+
+    /** Call after transactions [first, last] were appended to the store. */
+    void fireTransactionsAppended(int first, int last){
+        if(last >= first) fireTableRowsInserted(first, last);
+    }
+}
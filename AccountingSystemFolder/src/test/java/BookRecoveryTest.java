@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookRecoveryTest {
+
+    @TempDir Path dir;
+
+    /** What openBook() does: snapshot, then the log after it, seeded from the checkpoint. */
+    @Test
+    void snapshotCheckpointAndTailMatchAFullReplay() throws IOException {
+        Path logFile = dir.resolve("book.log"), snapshot = dir.resolve("book.snap"), checkpoint = dir.resolve("book.ckpt");
+        Random rnd = new Random(3);
+        PostingEngine book = TestBook.open(logFile);
+        TestBook.openChart(book);
+        post(book, rnd, 2000);
+
+        TransactionLog log = book.log();
+        log.sync();
+        BookSnapshot.write(book, log.position(), snapshot);
+        book.ensureAccount("Equipment Loan [LIABILITY]"); // after the snapshot: only the log has it
+        post(book, rnd, 1500);
+        book.post(TestBook.tx("2024-03-01", "Cash", "Equipment Loan", 2_500_000));
+        BalanceCheckpoint.write(book.checkpoint(), checkpoint);
+        book.retype("Equipment Loan", AccountingSystem3_fixed.AccountType.EQUITY); // the tail changes a type...
+        post(book, rnd, 1000); // ...and posts, back-dated as often as not
+        log.close();
+
+        PostingEngine full = new PostingEngine();
+        try(TransactionLog replay = new TransactionLog(logFile, TransactionLog.FsyncPolicy.NEVER, 1000, 1)){
+            replay.replay(full, 0);
+        }
+
+        PostingEngine recovered = new PostingEngine();
+        long from = BookSnapshot.load(snapshot, recovered);
+        assertTrue(from > 0);
+        BalanceCheckpoint cp = BalanceCheckpoint.read(checkpoint);
+        assertNotNull(cp);
+        assertTrue(cp.logPosition > from);
+        try(TransactionLog replay = new TransactionLog(logFile, TransactionLog.FsyncPolicy.NEVER, 1000, 1)){
+            replay.replay(recovered, from, cp);
+        }
+        assertNotNull(recovered.latestCheckpoint(), "the checkpoint was not used");
+
+        assertEquals(TestBook.balances(full), TestBook.balances(recovered));
+        assertEquals(TestBook.balances(book), TestBook.balances(recovered));
+        assertEquals(full.store().size(), recovered.store().size());
+        assertEquals(0, recovered.reverify());
+        for(AccountingSystem3_fixed.AccountType type : AccountingSystem3_fixed.AccountType.values()){
+            assertEquals(full.typeTotal(type), recovered.typeTotal(type), type.name());
+        }
+        for(AccountingSystem3_fixed.Account a : full.accounts().values()){
+            AccountingSystem3_fixed.Account r = recovered.accounts().get(a.name);
+            assertEquals(a.type, r.type, a.name);
+            assertEquals(full.postingCount(a.name), recovered.postingCount(a.name), a.name);
+            for(int day = 19_700; day <= 20_000; day += 50){
+                assertEquals(full.balanceAsOf(a, day), recovered.balanceAsOf(r, day), a.name + " as of " + day);
+            }
+        }
+    }
+
+    @Test
+    void checkpointNotOnTheLogIsIgnored() throws IOException {
+        Path logFile = dir.resolve("book.log");
+        Random rnd = new Random(5);
+        PostingEngine book = TestBook.open(logFile);
+        TestBook.openChart(book);
+        post(book, rnd, 500);
+        BalanceCheckpoint good = book.checkpoint();
+        post(book, rnd, 500);
+        book.log().close();
+
+        // same totals, but claiming a position in the middle of a record
+        BalanceCheckpoint torn = new BalanceCheckpoint(good.logPosition + 3, good.entries, good.names, good.types,
+                good.debits, good.credits, good.typeTotals);
+        PostingEngine recovered = new PostingEngine();
+        try(TransactionLog replay = new TransactionLog(logFile, TransactionLog.FsyncPolicy.NEVER, 1000, 1)){
+            replay.replay(recovered, 0, torn);
+        }
+        assertNull(recovered.latestCheckpoint());
+        assertEquals(TestBook.balances(book), TestBook.balances(recovered));
+    }
+
+    private static void post(PostingEngine book, Random rnd, int n){
+        String[][] pairs = {{"Cash", "Service Revenue"}, {"Rent Expense", "Cash"}, {"Cash", "Rent Expense"}};
+        for(int i = 0; i < n; i++){
+            String[] p = pairs[rnd.nextInt(pairs.length)];
+            book.post(TestBook.tx(19_700 + rnd.nextInt(300), p[0], p[1], 1 + rnd.nextInt(500_000)));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyTotalsTest {
+
+    @Test
+    void prefixSumsMatchANaiveSum(){
+        Random rnd = new Random(42);
+        DailyTotals totals = new DailyTotals();
+        List<long[]> entries = new ArrayList<>(); // {day, debit, credit}
+        for(int i = 0; i < 3000; i++){
+            // mostly current days, some back-dated ones, so appends and middle inserts both happen
+            int day = rnd.nextInt(4) == 0 ? 19_000 + rnd.nextInt(400) : 19_000 + i / 4;
+            long debit = rnd.nextInt(3) == 0 ? 0L : 1 + rnd.nextInt(1_000_000);
+            long credit = rnd.nextInt(3) == 0 ? 0L : 1 + rnd.nextInt(1_000_000);
+            totals.add(day, debit, credit);
+            entries.add(new long[]{day, debit, credit});
+            if(i % 97 == 0) assertSums(totals, entries, rnd);
+        }
+        assertSums(totals, entries, rnd);
+        assertEquals(entries.stream().mapToLong(e -> e[0]).distinct().count(), totals.days());
+    }
+
+    @Test
+    void farApartDaysCostOneSlotEach(){
+        DailyTotals totals = new DailyTotals();
+        int first = (int) java.time.LocalDate.of(1, 1, 1).toEpochDay();
+        int last = (int) java.time.LocalDate.of(9999, 12, 31).toEpochDay();
+        totals.add(last, 5, 0);
+        totals.add(first, 7, 3);
+        totals.add(last, 0, 2);
+        assertEquals(2, totals.days());
+        assertEquals(0L, totals.debitsThrough(first - 1));
+        assertEquals(7L, totals.debitsThrough(first));
+        assertEquals(7L, totals.debitsThrough(last - 1));
+        assertEquals(12L, totals.debitsThrough(last));
+        assertEquals(5L, totals.creditsThrough(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void emptyTotalsAreZero(){
+        DailyTotals totals = new DailyTotals();
+        assertEquals(0, totals.days());
+        assertEquals(0L, totals.debitsThrough(Integer.MAX_VALUE));
+        assertEquals(0L, totals.creditsThrough(Integer.MIN_VALUE));
+    }
+
+    private static void assertSums(DailyTotals totals, List<long[]> entries, Random rnd){
+        for(int k = 0; k < 50; k++){
+            int through = 18_990 + rnd.nextInt(1200);
+            long debits = 0L, credits = 0L;
+            for(long[] e : entries){
+                if(e[0] > through) continue;
+                debits += e[1];
+                credits += e[2];
+            }
+            assertEquals(debits, totals.debitsThrough(through), "debits through " + through);
+            assertEquals(credits, totals.creditsThrough(through), "credits through " + through);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeriodCloseTest {
+
+    private static final int CLOSE = (int) LocalDate.parse("2024-06-30").toEpochDay();
+
+    @TempDir Path dir;
+
+    @Test
+    void closeArchivesThePeriodAndReplaysTheSame() throws IOException {
+        List<AccountingSystem3_fixed.Transaction> txs = entries(new Random(9), 3000);
+        PostingEngine reference = TestBook.chart();
+        for(AccountingSystem3_fixed.Transaction tx : txs) reference.post(tx);
+
+        Path logFile = dir.resolve("book.log");
+        PostingEngine book = new PostingEngine();
+        book.attachArchive(new PeriodArchive(dir.resolve("archive")));
+        TransactionLog log = new TransactionLog(logFile, TransactionLog.FsyncPolicy.NEVER, 1000, 1);
+        log.replay(book, 0);
+        book.attachLog(log);
+        TestBook.openChart(book);
+        for(AccountingSystem3_fixed.Transaction tx : txs) book.post(tx);
+
+        long inPeriod = txs.stream().filter(tx -> tx.epochDay <= CLOSE).count();
+        PostingEngine.PeriodClose close = book.closePeriod(CLOSE, "Retained Earnings");
+        assertEquals(2, close.closingEntries);
+        assertEquals(inPeriod + close.closingEntries, close.archived);
+        assertEquals(txs.size() - inPeriod, book.store().size());
+        assertEquals(CLOSE, book.closedThrough());
+
+        // revenue and expense start over; their net went to equity; the sheet accounts are untouched
+        long netIncome = reference.balanceAsOf(account(reference, "Service Revenue"), CLOSE)
+                - reference.balanceAsOf(account(reference, "Rent Expense"), CLOSE);
+        assertEquals(0L, book.balanceAsOf(account(book, "Service Revenue"), CLOSE));
+        assertEquals(0L, book.balanceAsOf(account(book, "Rent Expense"), CLOSE));
+        assertEquals(reference.balance(account(reference, "Retained Earnings")) + netIncome, book.balance(account(book, "Retained Earnings")));
+        for(String name : new String[]{"Cash", "Bank Loan"}){
+            for(int day = CLOSE - 120; day <= CLOSE + 120; day += 30){
+                assertEquals(reference.balanceAsOf(account(reference, name), day), book.balanceAsOf(account(book, name), day), name + " as of " + day);
+            }
+        }
+        // archived entries page back in
+        int cash = account(book, "Cash").id, from = CLOSE - 60;
+        PostingEngine.Postings refCash = reference.postingsOf("Cash");
+        int[] range = reference.range(refCash, from, CLOSE);
+        assertEquals(range[1] - range[0], book.archivedPostings(cash, from, CLOSE).size());
+        assertEquals(0, book.reverify());
+
+        AccountingSystem3_fixed.Transaction late = new AccountingSystem3_fixed.Transaction(CLOSE, "late", AccountIds.intern("Cash"), AccountIds.intern("Service Revenue"), 100);
+        assertThrows(IllegalArgumentException.class, () -> book.post(late));
+        assertThrows(IllegalArgumentException.class, () -> book.closePeriod(CLOSE - 1, "Retained Earnings"));
+        book.post(TestBook.tx(CLOSE + 200, "Cash", "Service Revenue", 12_345));
+        log.close();
+
+        PostingEngine replayed = new PostingEngine();
+        replayed.attachArchive(new PeriodArchive(dir.resolve("archive")));
+        try(TransactionLog again = new TransactionLog(logFile, TransactionLog.FsyncPolicy.NEVER, 1000, 1)){
+            again.replay(replayed, 0);
+        }
+        assertEquals(CLOSE, replayed.closedThrough());
+        assertEquals(book.store().size(), replayed.store().size());
+        assertEquals(TestBook.balances(book), TestBook.balances(replayed));
+        assertEquals(book.balanceAsOf(account(book, "Cash"), CLOSE - 10), replayed.balanceAsOf(account(replayed, "Cash"), CLOSE - 10));
+        assertEquals(0, replayed.reverify());
+    }
+
+    @Test
+    void closeNeedsAnEquityAccountAndAnArchive() throws IOException {
+        PostingEngine book = TestBook.chart();
+        assertThrows(IllegalStateException.class, () -> book.closePeriod(CLOSE, "Retained Earnings"));
+        book.attachArchive(new PeriodArchive(dir.resolve("archive")));
+        assertThrows(IllegalArgumentException.class, () -> book.closePeriod(CLOSE, "Cash"));
+        assertEquals(Integer.MIN_VALUE, book.closedThrough());
+    }
+
+    private static List<AccountingSystem3_fixed.Transaction> entries(Random rnd, int n){
+        String[][] pairs = {{"Cash", "Service Revenue"}, {"Rent Expense", "Cash"}, {"Cash", "Bank Loan"}, {"Bank Loan", "Cash"}};
+        List<AccountingSystem3_fixed.Transaction> out = new ArrayList<>();
+        for(int i = 0; i < n; i++){
+            String[] p = pairs[rnd.nextInt(pairs.length)];
+            out.add(TestBook.tx(CLOSE - 180 + rnd.nextInt(360), p[0], p[1], 1 + rnd.nextInt(500_000)));
+        }
+        return out;
+    }
+
+    private static AccountingSystem3_fixed.Account account(PostingEngine engine, String name){
+        return engine.accounts().get(name);
+    }
+}
@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingEngineConcurrencyTest {
+
+    private static final String[][] ACCOUNTS = TestBook.CHART;
+    private static final int THREADS = 8, PER_THREAD = 5000;
+
+    @Test
+    void concurrentPostsEndWhereSerialPostsDo() throws Exception {
+        List<List<AccountingSystem3_fixed.Transaction>> work = new ArrayList<>();
+        Random rnd = new Random(7);
+        for(int t = 0; t < THREADS; t++){
+            List<AccountingSystem3_fixed.Transaction> txs = new ArrayList<>();
+            for(int i = 0; i < PER_THREAD; i++) txs.add(randomTx(rnd));
+            work.add(txs);
+        }
+
+        PostingEngine serial = TestBook.chart();
+        for(List<AccountingSystem3_fixed.Transaction> txs : work) for(AccountingSystem3_fixed.Transaction tx : txs) serial.post(tx);
+
+        PostingEngine concurrent = TestBook.chart();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for(List<AccountingSystem3_fixed.Transaction> txs : work){
+                done.add(pool.submit(() -> { for(AccountingSystem3_fixed.Transaction tx : txs) concurrent.post(tx); }));
+            }
+            for(Future<?> f : done) f.get(60, TimeUnit.SECONDS);
+        } finally { pool.shutdownNow(); }
+
+        assertEquals(THREADS * PER_THREAD, concurrent.store().size());
+        assertEquals(0, concurrent.reverify());
+        for(String[] a : ACCOUNTS){
+            AccountingSystem3_fixed.Account s = serial.accounts().get(a[0]), c = concurrent.accounts().get(a[0]);
+            assertEquals(serial.balance(s), concurrent.balance(c), a[0]);
+            assertEquals(serial.debitTotal(s), concurrent.debitTotal(c), a[0]);
+            assertEquals(serial.creditTotal(s), concurrent.creditTotal(c), a[0]);
+            assertEquals(serial.postingCount(a[0]), concurrent.postingCount(a[0]), a[0]);
+            for(int day = 19_700; day <= 20_100; day += 37){
+                assertEquals(serial.balanceAsOf(s, day), concurrent.balanceAsOf(c, day), a[0] + " as of " + day);
+            }
+            PostingEngine.Postings p = concurrent.postingsOf(a[0]);
+            for(int k = 1; k < p.size(); k++) assertTrue(p.day(k - 1) <= p.day(k), a[0] + " postings out of date order");
+        }
+        for(AccountingSystem3_fixed.AccountType type : AccountingSystem3_fixed.AccountType.values()){
+            assertEquals(serial.typeTotal(type), concurrent.typeTotal(type), type.name());
+        }
+    }
+
+    @Test
+    void postAllIsContiguousWhileOthersPost() throws Exception {
+        PostingEngine engine = TestBook.chart();
+        Random rnd = new Random(11);
+        List<AccountingSystem3_fixed.Transaction> batch = new ArrayList<>();
+        for(int i = 0; i < 20_000; i++) batch.add(randomTx(rnd));
+        List<AccountingSystem3_fixed.Transaction> others = new ArrayList<>();
+        for(int i = 0; i < 20_000; i++) others.add(randomTx(rnd));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> posting = pool.submit(() -> { for(AccountingSystem3_fixed.Transaction tx : others) engine.post(tx); });
+            Future<Integer> first = pool.submit(() -> engine.postAll(batch));
+            posting.get(60, TimeUnit.SECONDS);
+            TransactionStore store = engine.store();
+            for(int k = 0; k < batch.size(); k++){
+                AccountingSystem3_fixed.Transaction want = batch.get(k);
+                int pos = first.get(60, TimeUnit.SECONDS) + k;
+                assertEquals(want.epochDay, store.epochDay(pos));
+                assertEquals(want.amount, store.amount(pos));
+                assertEquals(want.debitId, store.debitId(pos));
+            }
+        } finally { pool.shutdownNow(); }
+    }
+
+    private static AccountingSystem3_fixed.Transaction randomTx(Random rnd){
+        int d = rnd.nextInt(ACCOUNTS.length), c = (d + 1 + rnd.nextInt(ACCOUNTS.length - 1)) % ACCOUNTS.length;
+        int day = 19_700 + rnd.nextInt(400); // back-dated as often as not
+        return TestBook.tx(day, ACCOUNTS[d][0], ACCOUNTS[c][0], 1 + rnd.nextInt(1_000_000));
+    }
+}
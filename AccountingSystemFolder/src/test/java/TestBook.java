@@ -0,0 +1,60 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * TestBook
+ *
+ * Shared fixture for the engine tests: one chart of accounts, entry factories, and books
+ * with a TransactionLog behind them.
+ */
+final class TestBook {
+
+    static final String[][] CHART = {
+            {"Cash", "ASSET"}, {"Receivables", "ASSET"}, {"Bank Loan", "LIABILITY"}, {"Owner Capital", "EQUITY"},
+            {"Retained Earnings", "EQUITY"}, {"Service Revenue", "REVENUE"}, {"Rent Expense", "EXPENSE"},
+            {"Supplies Expense", "EXPENSE"}};
+
+    private TestBook(){}
+
+    /** A book without a log, with the chart opened. */
+    static PostingEngine chart(){
+        PostingEngine engine = new PostingEngine();
+        openChart(engine);
+        return engine;
+    }
+
+    static void openChart(PostingEngine engine){
+        for(String[] a : CHART) engine.openAccount(a[0], AccountingSystem3_fixed.AccountType.valueOf(a[1]));
+    }
+
+    /** A book with the log at {@code file} replayed into it and attached (nothing opened). */
+    static PostingEngine open(Path file) throws IOException {
+        PostingEngine engine = new PostingEngine();
+        TransactionLog log = new TransactionLog(file, TransactionLog.FsyncPolicy.NEVER, 1000, 1);
+        log.replay(engine, 0);
+        engine.attachLog(log);
+        return engine;
+    }
+
+    static AccountingSystem3_fixed.Transaction tx(String date, String debit, String credit, long cents){
+        return new AccountingSystem3_fixed.Transaction(date, "test", debit, credit, cents);
+    }
+
+    static AccountingSystem3_fixed.Transaction tx(int epochDay, String debit, String credit, long cents){
+        return tx(LocalDate.ofEpochDay(epochDay).toString(), debit, credit, cents);
+    }
+
+    static long balance(PostingEngine engine, String account){
+        return engine.balance(engine.accounts().get(account));
+    }
+
+    /** Every account's balance, by name. */
+    static Map<String, Long> balances(PostingEngine engine){
+        Map<String, Long> out = new TreeMap<>();
+        for(AccountingSystem3_fixed.Account a : engine.accounts().values()) out.put(a.name, engine.balance(a));
+        return out;
+    }
+}
@@ -0,0 +1,167 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void replayRestoresWhatWasLogged() throws IOException {
+        Path file = dir.resolve("book.log");
+        PostingEngine book = TestBook.open(file);
+        book.openAccount("Cash", AccountingSystem3_fixed.AccountType.ASSET);
+        book.openAccount("Service Revenue", AccountingSystem3_fixed.AccountType.REVENUE);
+        book.ensureAccount("Bank Loan [LIABILITY]");
+        book.post(TestBook.tx("2024-01-02", "Cash", "Service Revenue", 125_050));
+        book.post(TestBook.tx("2024-01-03", "Cash", "Bank Loan", 1_000_000));
+        book.retype("Bank Loan", AccountingSystem3_fixed.AccountType.EQUITY);
+        book.postBatch(List.of("Rent Expense"), List.of(
+                TestBook.tx("2024-01-04", "Rent Expense", "Cash", 40_000),
+                TestBook.tx("2024-01-05", "Cash", "Service Revenue", 7_500)));
+        book.log().close();
+
+        PostingEngine replayed = new PostingEngine();
+        try(TransactionLog log = new TransactionLog(file, TransactionLog.FsyncPolicy.NEVER, 1000, 1)){
+            assertEquals(11, log.replay(replayed, 0)); // 4 opens, 1 retype, 2 posts, a batch of 2 with its markers
+        }
+        assertEquals(TestBook.balances(book), TestBook.balances(replayed));
+        assertEquals(4, replayed.transactions().size());
+        assertEquals(AccountingSystem3_fixed.AccountType.EQUITY, replayed.accounts().get("Bank Loan").type);
+        assertEquals(0, replayed.reverify());
+    }
+
+    @Test
+    void tornTailIsCutOffAndLoggingCarriesOn() throws IOException {
+        Path file = dir.resolve("book.log");
+        PostingEngine book = TestBook.open(file);
+        book.openAccount("Cash", AccountingSystem3_fixed.AccountType.ASSET);
+        book.openAccount("Service Revenue", AccountingSystem3_fixed.AccountType.REVENUE);
+        book.post(TestBook.tx("2024-01-02", "Cash", "Service Revenue", 10_000));
+        book.log().close();
+        long intact = Files.size(file);
+
+        // a crash in the middle of writing the next record: a header promising more than is there
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            ch.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 5, 6}));
+        }
+
+        PostingEngine replayed = TestBook.open(file);
+        assertEquals(intact, Files.size(file));
+        assertEquals(1, replayed.transactions().size());
+        replayed.post(TestBook.tx("2024-01-03", "Cash", "Service Revenue", 5_000));
+        replayed.log().close();
+
+        PostingEngine again = new PostingEngine();
+        try(TransactionLog log = new TransactionLog(file, TransactionLog.FsyncPolicy.NEVER, 1000, 1)){
+            assertEquals(4, log.replay(again, 0));
+        }
+        assertEquals(15_000L, TestBook.balance(again, "Cash"));
+    }
+
+    @Test
+    void corruptRecordEndsTheLog() throws IOException {
+        Path file = dir.resolve("book.log");
+        PostingEngine book = TestBook.open(file);
+        book.openAccount("Cash", AccountingSystem3_fixed.AccountType.ASSET);
+        book.openAccount("Service Revenue", AccountingSystem3_fixed.AccountType.REVENUE);
+        book.post(TestBook.tx("2024-01-02", "Cash", "Service Revenue", 10_000));
+        book.log().sync();
+        long intact = Files.size(file);
+        book.post(TestBook.tx("2024-01-03", "Cash", "Service Revenue", 5_000));
+        book.log().close();
+
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)){
+            ch.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), Files.size(file) - 1); // last byte of the amount
+        }
+
+        PostingEngine replayed = TestBook.open(file);
+        replayed.log().close();
+        assertEquals(intact, Files.size(file));
+        assertEquals(10_000L, TestBook.balance(replayed, "Cash"));
+    }
+
+    @Test
+    void overlongDescriptionIsRefusedBeforeTheLog() throws IOException {
+        Path file = dir.resolve("book.log");
+        PostingEngine book = TestBook.open(file);
+        book.openAccount("Cash", AccountingSystem3_fixed.AccountType.ASSET);
+        book.openAccount("Service Revenue", AccountingSystem3_fixed.AccountType.REVENUE);
+        book.log().sync();
+        long before = Files.size(file);
+        String desc = "x".repeat(AccountingSystem3_fixed.Transaction.MAX_DESCRIPTION + 1);
+        AccountingSystem3_fixed.Transaction tx = new AccountingSystem3_fixed.Transaction("2024-01-02", desc, "Cash", "Service Revenue", 100);
+        assertThrows(IllegalArgumentException.class, () -> book.post(tx));
+        assertThrows(PostingEngine.BatchRejected.class, () -> book.postBatch(List.of(), List.of(tx)));
+        book.log().close();
+        assertEquals(before, Files.size(file));
+        assertEquals(0, book.transactions().size());
+    }
+
+    @Test
+    void batchWithoutItsEndIsDropped() throws IOException {
+        Path file = dir.resolve("book.log");
+        PostingEngine book = TestBook.open(file);
+        book.openAccount("Cash", AccountingSystem3_fixed.AccountType.ASSET);
+        book.openAccount("Service Revenue", AccountingSystem3_fixed.AccountType.REVENUE);
+        book.post(TestBook.tx("2024-01-02", "Cash", "Service Revenue", 10_000));
+        book.log().sync();
+        long beforeBatch = Files.size(file);
+        book.postBatch(List.of(), List.of(
+                TestBook.tx("2024-01-03", "Cash", "Service Revenue", 1_000),
+                TestBook.tx("2024-01-04", "Cash", "Service Revenue", 2_000)));
+        book.log().close();
+
+        // cut the BATCH_END record (header and a one-byte payload): BATCH_START and both posts remain
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)){
+            ch.truncate(Files.size(file) - 9);
+        }
+
+        PostingEngine replayed = TestBook.open(file);
+        assertEquals(beforeBatch, Files.size(file));
+        assertEquals(1, replayed.transactions().size());
+        assertEquals(10_000L, TestBook.balance(replayed, "Cash"));
+
+        // the next batch follows the last whole record and replays
+        replayed.postBatch(List.of(), List.of(TestBook.tx("2024-01-05", "Cash", "Service Revenue", 500)));
+        replayed.log().close();
+        PostingEngine again = TestBook.open(file);
+        again.log().close();
+        assertEquals(10_500L, TestBook.balance(again, "Cash"));
+    }
+
+    @Test
+    void batchWithoutItsEndTakesItsAccountsWithIt() throws IOException {
+        Path file = dir.resolve("book.log");
+        PostingEngine book = TestBook.open(file);
+        book.openAccount("Cash", AccountingSystem3_fixed.AccountType.ASSET);
+        book.openAccount("Service Revenue", AccountingSystem3_fixed.AccountType.REVENUE);
+        book.log().sync();
+        long beforeBatch = Files.size(file);
+        book.postBatch(List.of("Equipment [ASSET]", "Service Revenue [LIABILITY]"), List.of(
+                TestBook.tx("2024-01-03", "Equipment", "Cash", 1_000),
+                TestBook.tx("2024-01-04", "Cash", "Service Revenue", 2_000)));
+        book.log().close();
+        assertTrue(book.accounts().containsKey("Equipment"));
+
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)){
+            ch.truncate(Files.size(file) - 9); // the BATCH_END record
+        }
+
+        PostingEngine replayed = TestBook.open(file);
+        replayed.log().close();
+        assertEquals(beforeBatch, Files.size(file));
+        assertFalse(replayed.accounts().containsKey("Equipment"));
+        assertEquals(AccountingSystem3_fixed.AccountType.REVENUE, replayed.accounts().get("Service Revenue").type);
+        assertEquals(0, replayed.transactions().size());
+    }
+}
@@ -0,0 +1,120 @@
+import bench.Harness;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * HeadlessHarness
+ *
+ * Builds the two books the benchmarks run against, using the same model classes the
+ * frames use (PostingEngine + BookViews for AccountingSystem3_fixed, AccountingModels
+ * for AccountingSystem), so nothing here needs a display.
+ * - Transactions are generated from a fixed seed: a handful of realistic entry shapes
+ *   (sales, collections, rent, salaries, purchases...) spread over five years
+ * - Lives in the default package so it can reach the apps' package-private members
+ */
+public class HeadlessHarness implements Harness {
+
+    // debit, credit, description
+    private static final String[][] ENTRIES = {
+            {"Cash", "Sales Revenue", "Cash sale"},
+            {"Accounts Receivable", "Service Revenue", "Services on account"},
+            {"Cash", "Accounts Receivable", "Collection"},
+            {"Rent Expense", "Cash", "Monthly rent"},
+            {"Salaries Expense", "Cash", "Payroll"},
+            {"Supplies", "Accounts Payable", "Supplies on account"},
+            {"Accounts Payable", "Cash", "Paid supplier"},
+            {"Utilities Expense", "Cash", "Electric and water"},
+            {"Owner's Drawings", "Cash", "Owner withdrawal"},
+            {"Cash", "Owner's Capital", "Owner investment"},
+    };
+
+    private final ReportEngine reports = new ReportEngine();
+    private PostingEngine engine;
+    private BookViews views;
+    private AccountingModels models;
+
+    @Override
+    public void build(int transactions) {
+        Random rnd = new Random(42);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        String[] dates = new String[5 * 365];
+        for (int i = 0; i < dates.length; i++) dates[i] = start.plusDays(i).toString();
+
+        engine = new PostingEngine();
+        for (String name : AccountingModels.sampleAccounts()) engine.ensureAccount(name);
+        views = new BookViews(engine);
+        models = new AccountingModels();
+
+        List<AccountingSystem3_fixed.Transaction> txs = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            String[] e = ENTRIES[rnd.nextInt(ENTRIES.length)];
+            String date = dates[i * dates.length / transactions];
+            long cents = 100L + rnd.nextInt(5_000_000);
+            txs.add(new AccountingSystem3_fixed.Transaction(date, e[2], e[0], e[1], cents));
+            models.postTransaction(date, e[2], e[0], e[1], cents);
+        }
+        engine.postAll(txs);
+        views.transactionsAppended(0, transactions - 1);
+        views.refreshAll();
+    }
+
+    @Override
+    public String busiestAccount() {
+        return "Cash";
+    }
+
+    @Override
+    public int recomputeBalances() {
+        return engine.reverify();
+    }
+
+    @Override
+    public int showLedgerFor(String account) {
+        views.showLedgerFor(account);
+        return firstScreen(views.ledgerModel);
+    }
+
+    @Override
+    public int refreshAllViews() {
+        views.refreshAll();
+        return views.accModel.getRowCount();
+    }
+
+    @Override
+    public int runReports() {
+        return reports.run(engine, Integer.MIN_VALUE, Integer.MAX_VALUE).trialBalance.size();
+    }
+
+    @Override
+    public void adjustAccountBalance(String account, long cents, boolean debit) {
+        models.adjustAccountBalance(account, cents, debit);
+    }
+
+    @Override
+    public int filterLedger(String account) {
+        return firstScreen(models.filterLedger(account));
+    }
+
+    // the ledgers are windowed: read what a table would paint first, then report the row count
+    private static int firstScreen(LedgerTableModel ledger) {
+        int rows = ledger.getRowCount();
+        for (int r = 0; r < Math.min(rows, 40); r++) {
+            for (int c = 0; c < ledger.getColumnCount(); c++) ledger.getValueAt(r, c);
+        }
+        return rows;
+    }
+
+    @Override
+    public long parseMoney(String text) {
+        return models.parseMoney(text);
+    }
+
+    @Override
+    public int updateBalanceSheetTotals() {
+        models.updateBalanceSheetTotals();
+        return models.balanceLeftModel.getRowCount() + models.balanceRightModel.getRowCount();
+    }
+}
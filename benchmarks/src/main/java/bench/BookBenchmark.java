@@ -0,0 +1,48 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** AccountingSystem3_fixed hot paths (PostingEngine + BookViews). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx3g"})
+public class BookBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int transactions;
+
+    private Harness harness;
+    private String account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        harness = Harness.create();
+        harness.build(transactions);
+        account = harness.busiestAccount();
+    }
+
+    @Benchmark
+    public int recomputeBalances() {
+        return harness.recomputeBalances();
+    }
+
+    @Benchmark
+    public int showLedgerFor() {
+        return harness.showLedgerFor(account);
+    }
+
+    @Benchmark
+    public int refreshAllViews() {
+        return harness.refreshAllViews();
+    }
+
+    @Benchmark
+    public int runReports() {
+        return harness.runReports();
+    }
+}
@@ -0,0 +1,54 @@
+package bench;
+
+/**
+ * The hot paths the benchmarks drive, for both apps, without opening a window.
+ *
+ * The apps are default-package classes with package-private members, which a named
+ * package cannot see (and JMH's generated code must live in one). The implementation,
+ * {@code HeadlessHarness}, therefore sits in the default package of this module and is
+ * loaded reflectively through {@link #create()}.
+ */
+public interface Harness {
+
+    /** Builds both books with {@code transactions} generated transactions (fixed seed). */
+    void build(int transactions);
+
+    /** Account the ledger benchmarks open; it carries the most postings. */
+    String busiestAccount();
+
+    // ----- AccountingSystem3_fixed (PostingEngine + BookViews) -----
+
+    /** Full replay of the book (the old recomputeBalances()); returns accounts that drifted. */
+    int recomputeBalances();
+
+    /** Opens the ledger for one account and reads its first screenful; returns its row count. */
+    int showLedgerFor(String account);
+
+    /** Rebuilds the accounts table, ledger list and balance sheet; returns the accounts row count. */
+    int refreshAllViews();
+
+    /** Trial balance, income statement and balance sheet over the whole book; returns the trial balance row count. */
+    int runReports();
+
+    // ----- AccountingSystem (AccountingModels) -----
+
+    /** Posts {@code cents} to an account's balance cell, as one side of a transaction. */
+    void adjustAccountBalance(String account, long cents, boolean debit);
+
+    /** Opens the filtered ledger for one account and reads its first screenful; returns its row count. */
+    int filterLedger(String account);
+
+    long parseMoney(String text);
+
+    /** Recomputes the balance sheet; returns the balance sheet row count. */
+    int updateBalanceSheetTotals();
+
+    static Harness create() {
+        System.setProperty("java.awt.headless", "true");
+        try {
+            return (Harness) Class.forName("HeadlessHarness").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("HeadlessHarness not on the classpath", e);
+        }
+    }
+}
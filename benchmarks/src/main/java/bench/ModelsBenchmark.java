@@ -0,0 +1,51 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** AccountingSystem hot paths (AccountingModels). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx3g"})
+public class ModelsBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int transactions;
+
+    private Harness harness;
+    private String account;
+    private boolean debit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        harness = Harness.create();
+        harness.build(transactions);
+        account = harness.busiestAccount();
+    }
+
+    /** Alternates debit and credit so the balance does not drift between iterations. */
+    @Benchmark
+    public void adjustAccountBalance() {
+        debit = !debit;
+        harness.adjustAccountBalance(account, 12_345L, debit);
+    }
+
+    @Benchmark
+    public int filterLedger() {
+        return harness.filterLedger(account);
+    }
+
+    @Benchmark
+    public long parseMoney() {
+        return harness.parseMoney("(₱1,234,567.89)");
+    }
+
+    @Benchmark
+    public int updateBalanceSheetTotals() {
+        return harness.updateBalanceSheetTotals();
+    }
+}